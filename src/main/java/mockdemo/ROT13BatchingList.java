@@ -0,0 +1,375 @@
+package mockdemo;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// A write-behind ROT13List for delegates which are expensive per call (persistent lists, remote stores).
+// Appends and set()s are held back unencoded, then encoded together and written by flush(): the set()s one call
+// each (repeated set()s of the same index coalesce), and every append in a single addAll(). flush() happens by
+// itself once maxBatchSize writes are pending or the oldest has waited maxDelayMillis - that's checked on each
+// read and write, so a list nobody touches keeps its pending writes until it's next used or flush()ed.
+// Reads see pending writes, and pending appends are read back without any decoding or delegate call; searches
+// and iteration look through the pending writes and then make one call on the delegate. Anything else that
+// changes the list (inserts, removals) flushes first. The delegate's size is tracked rather than asked
+// for, so - like an indexed ROT13List - the delegate mustn't be modified behind this list's back. Not thread-safe.
+public class ROT13BatchingList extends AbstractList<String> {
+    private final List<String> delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+
+    private int flushedSize;
+    private final ArrayList<String> pendingAppends = new ArrayList<String>();
+    private final Map<Integer, String> pendingSets = new HashMap<Integer, String>();
+    private boolean timing;
+    private long oldestPending;
+    // bumped whenever flush() appends to the delegate, which invalidates iterators over it
+    private int delegateAppends;
+
+    public ROT13BatchingList(List<String> delegate, int maxBatchSize, long maxDelayMillis) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive: " + maxBatchSize);
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelayMillis * 1000000L;
+        this.flushedSize = delegate.size();
+    }
+
+    @Override
+    public String get(int index) {
+        checkDeadline();
+        checkIndex(index, size());
+        if (index >= flushedSize) {
+            return pendingAppends.get(index - flushedSize);
+        }
+        if (pendingSets.containsKey(index)) {
+            return pendingSets.get(index);
+        }
+        return ROT13List.rot13(delegate.get(index));
+    }
+
+    @Override
+    public int size() {
+        checkDeadline();
+        return flushedSize + pendingAppends.size();
+    }
+
+    @Override
+    public String set(int index, String element) {
+        checkIndex(index, size());
+        String old;
+        if (index >= flushedSize) {
+            old = pendingAppends.set(index - flushedSize, element);
+        } else {
+            old = get(index);
+            pendingSets.put(index, element);
+        }
+        written();
+        return old;
+    }
+
+    @Override
+    public boolean add(String element) {
+        pendingAppends.add(element);
+        modCount++;
+        written();
+        return true;
+    }
+
+    @Override
+    public void add(int index, String element) {
+        if (index == size()) {
+            add(element);
+            return;
+        }
+        checkIndex(index, size());
+        flush();
+        delegate.add(index, ROT13List.rot13(element));
+        flushedSize++;
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> c) {
+        if (c.isEmpty()) {
+            return false;
+        }
+        pendingAppends.addAll(c);
+        modCount++;
+        written();
+        return true;
+    }
+
+    @Override
+    public String remove(int index) {
+        checkIndex(index, size());
+        flush();
+        String old = delegate.remove(index);
+        flushedSize--;
+        modCount++;
+        return ROT13List.rot13(old);
+    }
+
+    @Override
+    public void clear() {
+        pendingAppends.clear();
+        pendingSets.clear();
+        timing = false;
+        delegate.clear();
+        flushedSize = 0;
+        modCount++;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (o != null && !(o instanceof String)) {
+            return -1;
+        }
+        checkDeadline();
+        int found = -1;
+        for (Map.Entry<Integer, String> e : pendingSets.entrySet()) {
+            if (equal(o, e.getValue()) && (found < 0 || e.getKey() < found)) {
+                found = e.getKey();
+            }
+        }
+        String encoded = ROT13List.rot13((String) o);
+        int limit = found < 0 ? flushedSize : found;
+        int from = 0;
+        while (from < limit) {
+            // one call, unless the match is an element with a pending set() over it
+            int i = from == 0 ? delegate.indexOf(encoded) : delegate.subList(from, limit).indexOf(encoded);
+            if (i < 0 || from + i >= limit) {
+                break;
+            }
+            if (!pendingSets.containsKey(from + i)) {
+                return from + i;
+            }
+            from += i + 1;
+        }
+        if (found >= 0) {
+            return found;
+        }
+        int appended = pendingAppends.indexOf(o);
+        return appended < 0 ? -1 : flushedSize + appended;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (o != null && !(o instanceof String)) {
+            return -1;
+        }
+        checkDeadline();
+        int appended = pendingAppends.lastIndexOf(o);
+        if (appended >= 0) {
+            return flushedSize + appended;
+        }
+        int found = -1;
+        for (Map.Entry<Integer, String> e : pendingSets.entrySet()) {
+            if (equal(o, e.getValue()) && e.getKey() > found) {
+                found = e.getKey();
+            }
+        }
+        String encoded = ROT13List.rot13((String) o);
+        int to = flushedSize;
+        while (to > found + 1) {
+            int i = to == flushedSize ? delegate.lastIndexOf(encoded) : delegate.subList(0, to).lastIndexOf(encoded);
+            if (i <= found) {
+                break;
+            }
+            if (!pendingSets.containsKey(i)) {
+                return i;
+            }
+            to = i;
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return listIterator();
+    }
+
+    @Override
+    public ListIterator<String> listIterator(int index) {
+        checkDeadline();
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return new Itr(index);
+    }
+
+    public int getPendingCount() {
+        return pendingAppends.size() + pendingSets.size();
+    }
+
+    // writes every pending set() and append through to the delegate
+    public void flush() {
+        if (!pendingSets.isEmpty()) {
+            for (Map.Entry<Integer, String> e : pendingSets.entrySet()) {
+                delegate.set(e.getKey(), ROT13List.rot13(e.getValue()));
+            }
+            pendingSets.clear();
+        }
+        if (!pendingAppends.isEmpty()) {
+            String[] batch = pendingAppends.toArray(new String[pendingAppends.size()]);
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = ROT13List.rot13(batch[i]);
+            }
+            delegate.addAll(Arrays.asList(batch));
+            flushedSize += batch.length;
+            delegateAppends++;
+            pendingAppends.clear();
+        }
+        timing = false;
+    }
+
+    private void checkDeadline() {
+        if (timing && System.nanoTime() - oldestPending >= maxDelayNanos) {
+            flush();
+        }
+    }
+
+    private void written() {
+        long now = System.nanoTime();
+        if (!timing) {
+            oldestPending = now;
+            timing = true;
+        }
+        if (getPendingCount() >= maxBatchSize || now - oldestPending >= maxDelayNanos) {
+            flush();
+        }
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    // walks the delegate with one iterator of its own rather than a get() per element, overlaying pending set()s,
+    // then carries on through the pending appends. Writes go through the list itself.
+    private class Itr implements ListIterator<String> {
+        private int cursor;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+        private ListIterator<String> flushed;
+        private int flushedAt;
+        private int expectedDelegateAppends;
+
+        Itr(int index) {
+            this.cursor = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size();
+        }
+
+        @Override
+        public String next() {
+            checkForComodification();
+            if (cursor >= size()) {
+                throw new NoSuchElementException();
+            }
+            String next = elementAt(cursor);
+            lastReturned = cursor++;
+            return next;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public String previous() {
+            checkForComodification();
+            if (cursor <= 0) {
+                throw new NoSuchElementException();
+            }
+            String previous = get(cursor - 1);
+            lastReturned = --cursor;
+            return previous;
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            ROT13BatchingList.this.remove(lastReturned);
+            cursor = lastReturned;
+            lastReturned = -1;
+            expectedModCount = modCount;
+            flushed = null;
+        }
+
+        @Override
+        public void set(String element) {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            ROT13BatchingList.this.set(lastReturned, element);
+        }
+
+        @Override
+        public void add(String element) {
+            checkForComodification();
+            ROT13BatchingList.this.add(cursor++, element);
+            lastReturned = -1;
+            expectedModCount = modCount;
+            flushed = null;
+        }
+
+        private String elementAt(int index) {
+            if (index >= flushedSize) {
+                return pendingAppends.get(index - flushedSize);
+            }
+            // set()s can flush, and a flush's appends invalidate the delegate's iterator, so start another
+            if (flushed == null || flushedAt != index || expectedDelegateAppends != delegateAppends) {
+                flushed = delegate.listIterator(index);
+                expectedDelegateAppends = delegateAppends;
+            }
+            String encoded = flushed.next();
+            flushedAt = index + 1;
+            return pendingSets.containsKey(index) ? pendingSets.get(index) : ROT13List.rot13(encoded);
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package mockdemo;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+
+// ROT13 straight over NIO buffers, so payloads read from/written to channels never have to become Strings.
+// Byte buffers are treated as ASCII/Latin-1 text: only the bytes for A-Z and a-z are changed, which also makes
+// it safe for UTF-8 (every byte of a multi-byte sequence is >= 0x80).
+// In-place methods translate the buffer's remaining elements and leave position and limit untouched;
+// source-to-destination methods behave like the buffers' own bulk put(), advancing both positions.
+public final class ROT13Buffers {
+
+    private ROT13Buffers() {
+    }
+
+    public static void rot13(CharBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int position = buffer.position();
+        int limit = buffer.limit();
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset();
+            ROT13List.translate(buffer.array(), offset + position, offset + limit);
+        } else {
+            for (int i = position; i < limit; i++) {
+                buffer.put(i, ROT13List.rot13(buffer.get(i)));
+            }
+        }
+    }
+
+    public static void rot13(CharBuffer src, CharBuffer dst) {
+        if (src == dst) {
+            throw new IllegalArgumentException("source and destination must be different buffers");
+        }
+        if (dst.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int count = src.remaining();
+        if (count > dst.remaining()) {
+            throw new BufferOverflowException();
+        }
+        int srcPosition = src.position();
+        int dstPosition = dst.position();
+        if (src.hasArray() && dst.hasArray()) {
+            ROT13List.rot13(src.array(), src.arrayOffset() + srcPosition, count,
+                    dst.array(), dst.arrayOffset() + dstPosition);
+        } else {
+            for (int i = 0; i < count; i++) {
+                dst.put(dstPosition + i, ROT13List.rot13(src.get(srcPosition + i)));
+            }
+        }
+        src.position(srcPosition + count);
+        dst.position(dstPosition + count);
+    }
+
+    public static void rot13(ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int position = buffer.position();
+        int limit = buffer.limit();
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset();
+            ROT13List.translate(buffer.array(), offset + position, offset + limit);
+        } else {
+            int i = position;
+            for (; i <= limit - 8; i += 8) {
+                buffer.putLong(i, rot13(buffer.getLong(i)));
+            }
+            for (; i < limit; i++) {
+                buffer.put(i, ROT13List.rot13(buffer.get(i)));
+            }
+        }
+    }
+
+    public static void rot13(ByteBuffer src, ByteBuffer dst) {
+        if (src == dst) {
+            throw new IllegalArgumentException("source and destination must be different buffers");
+        }
+        if (dst.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int count = src.remaining();
+        if (count > dst.remaining()) {
+            throw new BufferOverflowException();
+        }
+        int srcPosition = src.position();
+        int dstPosition = dst.position();
+        if (src.hasArray() && dst.hasArray()) {
+            byte[] in = src.array();
+            byte[] out = dst.array();
+            int inOffset = src.arrayOffset() + srcPosition;
+            int outOffset = dst.arrayOffset() + dstPosition;
+            if (in == out && outOffset > inOffset) {
+                // two views onto the same array, shifting right - copy first so nothing is read after being written
+                System.arraycopy(in, inOffset, out, outOffset, count);
+                ROT13List.translate(out, outOffset, outOffset + count);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    out[outOffset + i] = ROT13List.rot13(in[inOffset + i]);
+                }
+            }
+        } else {
+            // direct (e.g. memory-mapped) buffers: eight bytes per access rather than one. The longs are read and
+            // written through native-order views of both buffers, as src and dst may have been set to different
+            // byte orders, which would otherwise reverse every eight bytes.
+            ByteBuffer in = src.duplicate().order(ByteOrder.nativeOrder());
+            ByteBuffer out = dst.duplicate().order(ByteOrder.nativeOrder());
+            int i = 0;
+            for (; i <= count - 8; i += 8) {
+                out.putLong(dstPosition + i, rot13(in.getLong(srcPosition + i)));
+            }
+            for (; i < count; i++) {
+                out.put(dstPosition + i, ROT13List.rot13(in.get(srcPosition + i)));
+            }
+        }
+        src.position(srcPosition + count);
+        dst.position(dstPosition + count);
+    }
+
+    // ROT13 on each of the eight bytes packed into a long, without branching per byte.
+    // No step can carry or borrow across a byte boundary, so it works whichever order the bytes were packed in -
+    // provided they're unpacked in that same order.
+    static long rot13(long bytes) {
+        long lower = (bytes | 0x2020202020202020L) & 0x7f7f7f7f7f7f7f7fL;
+        long atLeastA = lower + 0x1f1f1f1f1f1f1f1fL;       // high bit set where lower >= 'a'
+        long pastZ = lower + 0x0505050505050505L;          // high bit set where lower > 'z'
+        long pastM = lower + 0x1212121212121212L;          // high bit set where lower > 'm'
+        long letters = atLeastA & ~pastZ & ~bytes & 0x8080808080808080L;
+        long up = ((letters & ~pastM) >>> 7) * 13;
+        long down = ((letters & pastM) >>> 7) * 13;
+        return bytes + up - down;
+    }
+
+}
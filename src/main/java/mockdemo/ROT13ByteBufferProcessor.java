@@ -0,0 +1,26 @@
+package mockdemo;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+
+// The ByteBuffer counterpart of ROT13Processor, for ASCII/Latin-1 (or UTF-8) payloads. Each buffer's remaining
+// bytes are translated in place - position and limit are left alone - and the same buffer passed on, so nothing
+// is copied; read-only buffers end the stream with a ReadOnlyBufferException.
+public class ROT13ByteBufferProcessor extends ROT13FlowStage<ByteBuffer> {
+
+    public ROT13ByteBufferProcessor() {
+        this(ROT13Processor.DEFAULT_BATCH_SIZE, null);
+    }
+
+    // with a null executor, buffers are translated and delivered on the signalling thread
+    public ROT13ByteBufferProcessor(int batchSize, Executor executor) {
+        super(batchSize, executor);
+    }
+
+    @Override
+    ByteBuffer translate(ByteBuffer item) {
+        ROT13Buffers.rot13(item);
+        return item;
+    }
+
+}
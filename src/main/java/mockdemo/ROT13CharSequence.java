@@ -0,0 +1,45 @@
+package mockdemo;
+
+// A window onto an encoded String that decodes each char as it's asked for. subSequence() shares the same
+// encoded String; only toString() builds a decoded copy.
+final class ROT13CharSequence implements CharSequence {
+    private final String encoded;
+    private final int from;
+    private final int to;
+
+    ROT13CharSequence(String encoded, int from, int to) {
+        this.encoded = encoded;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public int length() {
+        return to - from;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= to - from) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return ROT13List.rot13(encoded.charAt(from + index));
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > to - from || start > end) {
+            throw new StringIndexOutOfBoundsException("start " + start + ", end " + end + ", length " + (to - from));
+        }
+        return new ROT13CharSequence(encoded, from + start, from + end);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[to - from];
+        encoded.getChars(from, to, chars, 0);
+        ROT13List.translate(chars, 0, chars.length);
+        return new String(chars);
+    }
+
+}
@@ -0,0 +1,506 @@
+package mockdemo;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// A thread-safe ROT13List for read-heavy concurrent use, in place of Collections.synchronizedList(new ROT13List(...)).
+// Encoded elements sit in an ArrayList-style array guarded by a StampedLock: reads are optimistic and take no lock
+// at all unless a write lands in the middle of them, and every encode and decode happens outside the lock, so
+// readers never queue up behind one another. Writes take the write lock only to move references about;
+// addAll() encodes its whole batch first and then takes the lock once.
+// Iterators work over a snapshot taken when they're created, and don't support modification; the bulk operations
+// which would otherwise go through one (removeAll, retainAll, removeIf, replaceAll, sort, subList().clear()) work
+// on the array directly under the write lock. The ones that call back into user code decode a snapshot and make
+// the calls with no lock held, then apply the result only if nothing was written meanwhile, and start over if it was.
+public class ROT13ConcurrentList extends AbstractList<String> implements RandomAccess {
+    private final StampedLock lock = new StampedLock();
+    private String[] elements;
+    private int size;
+    // bumped under the write lock by every write, set() included, unlike modCount
+    private int version;
+
+    public ROT13ConcurrentList() {
+        elements = new String[16];
+    }
+
+    public ROT13ConcurrentList(Collection<String> c) {
+        elements = new String[Math.max(16, c.size())];
+        addAll(c);
+    }
+
+    @Override
+    public String get(int index) {
+        long stamp = lock.tryOptimisticRead();
+        String[] a = elements;
+        int n = size;
+        String encoded = index >= 0 && index < n && index < a.length ? a[index] : null;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                n = size;
+                encoded = index >= 0 && index < n ? elements[index] : null;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        checkIndex(index, n);
+        return ROT13List.rot13(encoded);
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int n = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                n = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public String set(int index, String element) {
+        String encoded = ROT13List.rot13(element);
+        String old;
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index, size);
+            old = elements[index];
+            elements[index] = encoded;
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return ROT13List.rot13(old);
+    }
+
+    @Override
+    public boolean add(String element) {
+        String encoded = ROT13List.rot13(element);
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(size + 1);
+            elements[size++] = encoded;
+            version++;
+            modCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return true;
+    }
+
+    @Override
+    public void add(int index, String element) {
+        String encoded = ROT13List.rot13(element);
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index, size + 1);
+            ensureCapacity(size + 1);
+            System.arraycopy(elements, index, elements, index + 1, size - index);
+            elements[index] = encoded;
+            size++;
+            version++;
+            modCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> c) {
+        String[] batch = encodeAll(c);
+        if (batch.length == 0) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(size + batch.length);
+            System.arraycopy(batch, 0, elements, size, batch.length);
+            size += batch.length;
+            version++;
+            modCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends String> c) {
+        String[] batch = encodeAll(c);
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index, size + 1);
+            if (batch.length == 0) {
+                return false;
+            }
+            ensureCapacity(size + batch.length);
+            System.arraycopy(elements, index, elements, index + batch.length, size - index);
+            System.arraycopy(batch, 0, elements, index, batch.length);
+            size += batch.length;
+            version++;
+            modCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return true;
+    }
+
+    @Override
+    public String remove(int index) {
+        String old;
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index, size);
+            old = removeAt(index);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return ROT13List.rot13(old);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o != null && !(o instanceof String)) {
+            return false;
+        }
+        String encoded = ROT13List.rot13((String) o);
+        long stamp = lock.writeLock();
+        try {
+            int index = find(elements, size, encoded);
+            if (index < 0) {
+                return false;
+            }
+            removeAt(index);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            Arrays.fill(elements, 0, size, null);
+            size = 0;
+            version++;
+            modCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (o != null && !(o instanceof String)) {
+            return -1;
+        }
+        String encoded = ROT13List.rot13((String) o);
+        long stamp = lock.tryOptimisticRead();
+        int index = find(elements, size, encoded);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                index = find(elements, size, encoded);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (o != null && !(o instanceof String)) {
+            return -1;
+        }
+        String encoded = ROT13List.rot13((String) o);
+        long stamp = lock.tryOptimisticRead();
+        int index = findLast(elements, size, encoded);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                index = findLast(elements, size, encoded);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    // the bulk removals encode their argument outside the lock, then filter the array in one pass under it,
+    // rather than going through the (read-only, snapshot) iterator as AbstractCollection would
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return removeEncoded(encodeStrings(c), true);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return removeEncoded(encodeStrings(c), false);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super String> filter) {
+        for (;;) {
+            Snapshot snapshot = snapshot();
+            String[] encoded = snapshot.elements;
+            boolean[] removed = new boolean[encoded.length];
+            boolean any = false;
+            for (int i = 0; i < encoded.length; i++) {
+                if (filter.test(ROT13List.rot13(encoded[i]))) {
+                    removed[i] = true;
+                    any = true;
+                }
+            }
+            if (!any) {
+                return false;
+            }
+            long stamp = lock.writeLock();
+            try {
+                if (version == snapshot.version) {
+                    int kept = 0;
+                    for (int i = 0; i < size; i++) {
+                        if (!removed[i]) {
+                            elements[kept++] = elements[i];
+                        }
+                    }
+                    return truncate(kept);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<String> operator) {
+        for (;;) {
+            Snapshot snapshot = snapshot();
+            String[] replaced = snapshot.elements;
+            for (int i = 0; i < replaced.length; i++) {
+                replaced[i] = ROT13List.rot13(operator.apply(ROT13List.rot13(replaced[i])));
+            }
+            if (replaceWith(replaced, snapshot.version)) {
+                return;
+            }
+        }
+    }
+
+    // decodes each element once, then puts the original encoded instances back in their sorted order
+    @Override
+    public void sort(final Comparator<? super String> c) {
+        for (;;) {
+            Snapshot snapshot = snapshot();
+            String[] encoded = snapshot.elements;
+            final String[] decoded = new String[encoded.length];
+            Integer[] order = new Integer[encoded.length];
+            for (int i = 0; i < encoded.length; i++) {
+                decoded[i] = ROT13List.rot13(encoded[i]);
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public int compare(Integer a, Integer b) {
+                    return c != null ? c.compare(decoded[a], decoded[b])
+                            : ((Comparable<String>) decoded[a]).compareTo(decoded[b]);
+                }
+            });
+            String[] sorted = new String[encoded.length];
+            for (int i = 0; i < encoded.length; i++) {
+                sorted[i] = encoded[order[i]];
+            }
+            if (replaceWith(sorted, snapshot.version)) {
+                return;
+            }
+        }
+    }
+
+    // what subList(from, to).clear() comes down to
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        long stamp = lock.writeLock();
+        try {
+            if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + size);
+            }
+            System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+            truncate(size - (toIndex - fromIndex));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<String> listIterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<String> listIterator(int index) {
+        String[] snapshot;
+        long stamp = lock.readLock();
+        try {
+            snapshot = Arrays.copyOf(elements, size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        checkIndex(index, snapshot.length + 1);
+        // decoded lazily by the plain ROT13List iterator; read-only since it's only a snapshot
+        return new ROT13List(Collections.unmodifiableList(Arrays.asList(snapshot))).listIterator(index);
+    }
+
+    private static class Snapshot {
+        final String[] elements;
+        final int version;
+
+        Snapshot(String[] elements, int version) {
+            this.elements = elements;
+            this.version = version;
+        }
+    }
+
+    private Snapshot snapshot() {
+        long stamp = lock.readLock();
+        try {
+            return new Snapshot(Arrays.copyOf(elements, size), version);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // puts in the whole contents worked out from a snapshot, unless there's been a write since it was taken
+    private boolean replaceWith(String[] replacement, int snapshotVersion) {
+        long stamp = lock.writeLock();
+        try {
+            if (version != snapshotVersion) {
+                return false;
+            }
+            System.arraycopy(replacement, 0, elements, 0, replacement.length);
+            version++;
+            modCount++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean removeEncoded(Set<String> encoded, boolean matching) {
+        long stamp = lock.writeLock();
+        try {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (encoded.contains(elements[i]) != matching) {
+                    elements[kept++] = elements[i];
+                }
+            }
+            return truncate(kept);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // callers must hold the write lock; drops everything from newSize on, saying whether anything went
+    private boolean truncate(int newSize) {
+        if (newSize == size) {
+            return false;
+        }
+        Arrays.fill(elements, newSize, size, null);
+        size = newSize;
+        version++;
+        modCount++;
+        return true;
+    }
+
+    // callers must hold the write lock
+    private void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(capacity, elements.length + (elements.length >> 1)));
+        }
+    }
+
+    // callers must hold the write lock
+    private String removeAt(int index) {
+        String old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        version++;
+        modCount++;
+        return old;
+    }
+
+    // non-Strings can't be in the list, so they're just left out
+    private static Set<String> encodeStrings(Collection<?> c) {
+        HashSet<String> encoded = new HashSet<String>();
+        for (Object o : c) {
+            if (o == null || o instanceof String) {
+                encoded.add(ROT13List.rot13((String) o));
+            }
+        }
+        return encoded;
+    }
+
+    private static String[] encodeAll(Collection<? extends String> c) {
+        String[] batch = c.toArray(new String[0]);
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = ROT13List.rot13(batch[i]);
+        }
+        return batch;
+    }
+
+    // tolerates a racing write when called optimistically - the result is thrown away if the stamp won't validate
+    private static int find(String[] a, int n, String encoded) {
+        n = Math.min(n, a.length);
+        for (int i = 0; i < n; i++) {
+            String e = a[i];
+            if (encoded == null ? e == null : encoded.equals(e)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int findLast(String[] a, int n, String encoded) {
+        for (int i = Math.min(n, a.length) - 1; i >= 0; i--) {
+            String e = a[i];
+            if (encoded == null ? e == null : encoded.equals(e)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+package mockdemo;
+
+import java.util.Arrays;
+
+// Bounded cache of decoded Strings, keyed by the identity of the encoded String they came from, for ROT13Lists
+// whose hot elements are read over and over. Entries are evicted CLOCK-style (second chance) once full.
+// Lookups and inserts allocate nothing beyond the decoded String itself. Not thread-safe - like ROT13List itself.
+public class ROT13DecodeCache {
+    private final String[] keys;
+    private final String[] values;
+    private final boolean[] referenced;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int hand;
+
+    // open-addressed identity hash table from encoded String to slot + 1 (0 means empty)
+    private final int[] index;
+    private final int mask;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ROT13DecodeCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        keys = new String[capacity];
+        values = new String[capacity];
+        referenced = new boolean[capacity];
+        freeSlots = new int[capacity];
+        index = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        mask = index.length - 1;
+        clear();
+    }
+
+    public String decode(String encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        int position = find(encoded);
+        if (position >= 0) {
+            int slot = index[position] - 1;
+            referenced[slot] = true;
+            hits++;
+            return values[slot];
+        }
+        misses++;
+        String decoded = ROT13List.rot13(encoded);
+        insert(encoded, decoded);
+        return decoded;
+    }
+
+    // drops the entry for this encoded String, returning its decoded value if there was one
+    public String invalidate(String encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        int position = find(encoded);
+        if (position < 0) {
+            return null;
+        }
+        int slot = index[position] - 1;
+        String decoded = values[slot];
+        removeFromIndex(position);
+        release(slot);
+        freeSlots[freeCount++] = slot;
+        return decoded;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        Arrays.fill(referenced, false);
+        Arrays.fill(index, 0);
+        for (int i = 0; i < freeSlots.length; i++) {
+            freeSlots[i] = freeSlots.length - 1 - i;
+        }
+        freeCount = freeSlots.length;
+        hand = 0;
+    }
+
+    public int size() {
+        return keys.length - freeCount;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public String toString() {
+        return "ROT13DecodeCache[size=" + size() + "/" + capacity() + ", hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + "]";
+    }
+
+    private void insert(String encoded, String decoded) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = evict();
+        }
+        keys[slot] = encoded;
+        values[slot] = decoded;
+        int position = hash(encoded);
+        while (index[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        index[position] = slot + 1;
+    }
+
+    // sweep the clock hand round, giving referenced entries a second chance, and free the first one that isn't
+    private int evict() {
+        while (true) {
+            int slot = hand;
+            hand = (hand + 1) % keys.length;
+            if (referenced[slot]) {
+                referenced[slot] = false;
+            } else {
+                removeFromIndex(find(keys[slot]));
+                release(slot);
+                evictions++;
+                return slot;
+            }
+        }
+    }
+
+    private void release(int slot) {
+        keys[slot] = null;
+        values[slot] = null;
+        referenced[slot] = false;
+    }
+
+    private int hash(String key) {
+        int h = System.identityHashCode(key) * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int find(String key) {
+        for (int position = hash(key); ; position = (position + 1) & mask) {
+            int entry = index[position];
+            if (entry == 0) {
+                return -1;
+            }
+            if (keys[entry - 1] == key) {
+                return position;
+            }
+        }
+    }
+
+    // linear probing deletion: shift later entries of the same probe run back so none become unreachable
+    private void removeFromIndex(int position) {
+        index[position] = 0;
+        int next = position;
+        while (true) {
+            next = (next + 1) & mask;
+            int entry = index[next];
+            if (entry == 0) {
+                return;
+            }
+            int home = hash(keys[entry - 1]);
+            boolean reachable = next > position ? (home > position && home <= next) : (home > position || home <= next);
+            if (!reachable) {
+                index[position] = entry;
+                index[next] = 0;
+                position = next;
+            }
+        }
+    }
+
+}
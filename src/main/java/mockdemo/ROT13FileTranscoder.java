@@ -0,0 +1,132 @@
+package mockdemo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// ROT13-transcodes ASCII/Latin-1 (or UTF-8) files by memory-mapping them a window at a time and translating
+// the mapped bytes directly - no Strings, no heap buffers, and no limit on file size beyond the disk.
+// Usage: java mockdemo.ROT13FileTranscoder <source> <target> [window size in MB] [parallel]
+public class ROT13FileTranscoder {
+    public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final int windowSize;
+    private final ROT13ForkJoin parallel;
+
+    public ROT13FileTranscoder() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    public ROT13FileTranscoder(int windowSize) {
+        this(windowSize, null);
+    }
+
+    // with a non-null parallel, each mapped window is split up and translated on its fork/join pool
+    public ROT13FileTranscoder(int windowSize, ROT13ForkJoin parallel) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("window size must be positive: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        this.parallel = parallel;
+    }
+
+    public Result transcode(File source, File target) throws IOException {
+        if (source.getCanonicalFile().equals(target.getCanonicalFile())) {
+            return transcodeInPlace(source);
+        }
+        long startTime = System.nanoTime();
+        RandomAccessFile in = new RandomAccessFile(source, "r");
+        try {
+            RandomAccessFile out = new RandomAccessFile(target, "rw");
+            try {
+                FileChannel inChannel = in.getChannel();
+                FileChannel outChannel = out.getChannel();
+                long size = inChannel.size();
+                out.setLength(size);
+                for (long offset = 0; offset < size; offset += windowSize) {
+                    long length = Math.min(windowSize, size - offset);
+                    MappedByteBuffer src = inChannel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                    MappedByteBuffer dst = outChannel.map(FileChannel.MapMode.READ_WRITE, offset, length);
+                    if (parallel != null) {
+                        parallel.rot13(src, dst);
+                    } else {
+                        ROT13Buffers.rot13(src, dst);
+                    }
+                }
+                return new Result(size, System.nanoTime() - startTime);
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    public Result transcodeInPlace(File file) throws IOException {
+        long startTime = System.nanoTime();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += windowSize) {
+                long length = Math.min(windowSize, size - offset);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, length);
+                if (parallel != null) {
+                    parallel.rot13(buffer);
+                } else {
+                    ROT13Buffers.rot13(buffer);
+                }
+            }
+            return new Result(size, System.nanoTime() - startTime);
+        } finally {
+            raf.close();
+        }
+    }
+
+    public static class Result {
+        private final long bytes;
+        private final long elapsedNanos;
+
+        Result(long bytes, long elapsedNanos) {
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : (bytes / (1024.0 * 1024.0)) / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d bytes in %.3f s (%.1f MB/s)", bytes, elapsedNanos / 1e9, getMegabytesPerSecond());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: ROT13FileTranscoder <source> <target> [window size in MB] [parallel]");
+            System.exit(1);
+        }
+        int windowSize = DEFAULT_WINDOW_SIZE;
+        if (args.length > 2) {
+            windowSize = Integer.parseInt(args[2]) << 20;
+        }
+        ROT13ForkJoin parallel = null;
+        if (args.length > 3 && args[3].equals("parallel")) {
+            parallel = new ROT13ForkJoin();
+        }
+        ROT13FileTranscoder transcoder = new ROT13FileTranscoder(windowSize, parallel);
+        System.out.println(transcoder.transcode(new File(args[0]), new File(args[1])));
+    }
+
+}
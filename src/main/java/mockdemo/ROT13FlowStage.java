@@ -0,0 +1,229 @@
+package mockdemo;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The machinery shared by ROT13Processor and ROT13ByteBufferProcessor: a Flow.Processor which translates each
+// item on its way from one upstream publisher to one downstream subscriber.
+// Upstream is asked for batchSize items up front and then for batchSize / 2 more each time that many have gone
+// downstream, so at most batchSize items are ever buffered and upstream sees one request() per half batch rather
+// than one per item. Items are only passed downstream as it requests them.
+// Translation and delivery happen in a drain loop which runs on the executor if there is one, or otherwise on
+// whichever thread signalled (upstream's onNext or downstream's request) - no thread handoff at all.
+abstract class ROT13FlowStage<T> implements Flow.Processor<T, T> {
+    private final int batchSize;
+    private final int replenish;
+    private final Executor executor;
+
+    private final Queue<T> queue = new ConcurrentLinkedQueue<T>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super T> downstream;
+    private volatile boolean done;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+    // a downstream protocol violation, which ends the stream at once without draining the buffer
+    private volatile Throwable requestError;
+
+    // only touched by the drain loop
+    private int consumed;
+    private boolean terminated;
+
+    ROT13FlowStage(int batchSize, Executor executor) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.replenish = Math.max(1, batchSize / 2);
+        this.executor = executor;
+    }
+
+    abstract T translate(T item);
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (item == null) {
+            throw new NullPointerException("onNext(null)");
+        }
+        queue.offer(item);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    @Override
+    public synchronized void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        if (downstream != null) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("only one subscriber allowed"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    requestError = new IllegalArgumentException("non-positive request: " + n);
+                    cancelUpstream();
+                } else {
+                    long r;
+                    long next;
+                    do {
+                        r = requested.get();
+                        next = r + n < 0 ? Long.MAX_VALUE : r + n;
+                    } while (!requested.compareAndSet(r, next));
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        downstream = subscriber;
+        drain();
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription s = upstream;
+        if (s != null) {
+            s.cancel();
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        if (executor != null) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drainLoop();
+                }
+            });
+        } else {
+            drainLoop();
+        }
+    }
+
+    // runs on one thread at a time, guarded by wip; signals arriving meanwhile bump wip so it goes round again
+    private void drainLoop() {
+        int missed = 1;
+        while (true) {
+            Flow.Subscriber<? super T> subscriber = downstream;
+            if (subscriber != null && !terminated && requestError != null) {
+                terminated = true;
+                queue.clear();
+                subscriber.onError(requestError);
+            } else if (subscriber != null && !terminated) {
+                long r = requested.get();
+                long emitted = 0;
+                while (emitted != r && !terminated) {
+                    if (cancelled) {
+                        queue.clear();
+                        terminated = true;
+                        break;
+                    }
+                    boolean finished = done;
+                    T item = queue.poll();
+                    if (item == null) {
+                        if (finished) {
+                            terminate(subscriber);
+                        }
+                        break;
+                    }
+                    T translated;
+                    try {
+                        translated = translate(item);
+                    } catch (RuntimeException e) {
+                        cancelUpstream();
+                        queue.clear();
+                        terminated = true;
+                        subscriber.onError(e);
+                        break;
+                    }
+                    subscriber.onNext(translated);
+                    emitted++;
+                    if (++consumed == replenish) {
+                        consumed = 0;
+                        upstream.request(replenish);
+                    }
+                }
+                if (!terminated) {
+                    if (cancelled) {
+                        queue.clear();
+                        terminated = true;
+                    } else if (done && queue.isEmpty()) {
+                        terminate(subscriber);
+                    }
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+            } else if (terminated) {
+                queue.clear();
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void terminate(Flow.Subscriber<? super T> subscriber) {
+        terminated = true;
+        queue.clear();
+        Throwable e = error;
+        if (e != null) {
+            subscriber.onError(e);
+        } else {
+            subscriber.onComplete();
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+package mockdemo;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Parallel ROT13 for big payloads: every char translates independently, so inputs are simply cut in halves
+// until the pieces are no bigger than the threshold and the pieces are translated on a ForkJoinPool.
+// Anything at or under the threshold never leaves the calling thread.
+public class ROT13ForkJoin {
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+    private static ForkJoinPool defaultPool;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public ROT13ForkJoin() {
+        this(defaultPool(), DEFAULT_THRESHOLD);
+    }
+
+    public ROT13ForkJoin(ForkJoinPool pool) {
+        this(pool, DEFAULT_THRESHOLD);
+    }
+
+    public ROT13ForkJoin(ForkJoinPool pool, int threshold) {
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    private static synchronized ForkJoinPool defaultPool() {
+        if (defaultPool == null) {
+            defaultPool = new ForkJoinPool();
+        }
+        return defaultPool;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public String rot13(String s) {
+        if (s == null || s.length() <= threshold) {
+            return ROT13List.rot13(s);
+        }
+        char[] chars = s.toCharArray();
+        rot13InPlace(chars, 0, chars.length);
+        return new String(chars);
+    }
+
+    public void rot13InPlace(char[] chars) {
+        rot13InPlace(chars, 0, chars.length);
+    }
+
+    public void rot13InPlace(final char[] chars, int off, int len) {
+        if (off < 0 || len < 0 || off > chars.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        run(new Range(off, off + len) {
+            @Override
+            void translate(int from, int to) {
+                ROT13List.translate(chars, from, to);
+            }
+        });
+    }
+
+    public void rot13(final char[] src, final int off, int len, final char[] dst, final int dstOff) {
+        if (off < 0 || len < 0 || off > src.length - len || dstOff < 0 || dstOff > dst.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (src == dst && Math.abs(dstOff - off) < len) {
+            // overlapping chunks would race with each other, so shift the chars over first
+            System.arraycopy(src, off, dst, dstOff, len);
+            rot13InPlace(dst, dstOff, len);
+            return;
+        }
+        run(new Range(0, len) {
+            @Override
+            void translate(int from, int to) {
+                ROT13List.rot13(src, off + from, to - from, dst, dstOff + from);
+            }
+        });
+    }
+
+    // translates the remaining chars in place, leaving position and limit untouched, as ROT13Buffers.rot13 does
+    public void rot13(final CharBuffer buffer) {
+        run(new Range(buffer.position(), buffer.limit()) {
+            @Override
+            void translate(int from, int to) {
+                ROT13Buffers.rot13(window(buffer, from, to));
+            }
+        });
+    }
+
+    // translates the remaining bytes in place (e.g. a memory-mapped region), leaving position and limit untouched
+    public void rot13(final ByteBuffer buffer) {
+        run(new Range(buffer.position(), buffer.limit()) {
+            @Override
+            void translate(int from, int to) {
+                ROT13Buffers.rot13(window(buffer, from, to));
+            }
+        });
+    }
+
+    // copies src's remaining bytes into dst, advancing both positions, as ROT13Buffers.rot13(src, dst) does.
+    // Overlapping views of the same heap array are copied across first and then translated in place; overlap
+    // between direct buffers (or read-only ones, which don't expose their array) can't be seen from here, so
+    // views like that mustn't be passed in.
+    public void rot13(final ByteBuffer src, final ByteBuffer dst) {
+        int count = src.remaining();
+        if (count <= threshold || src == dst) {
+            ROT13Buffers.rot13(src, dst);
+            return;
+        }
+        if (dst.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        if (count > dst.remaining()) {
+            throw new BufferOverflowException();
+        }
+        final int srcPosition = src.position();
+        final int dstPosition = dst.position();
+        if (overlap(src, dst, count)) {
+            // chunks would read bytes other chunks had already written, so shift the bytes over first
+            dst.duplicate().put(window(src, srcPosition, srcPosition + count));
+            rot13(window(dst, dstPosition, dstPosition + count));
+            src.position(srcPosition + count);
+            dst.position(dstPosition + count);
+            return;
+        }
+        run(new Range(0, count) {
+            @Override
+            void translate(int from, int to) {
+                ROT13Buffers.rot13(window(src, srcPosition + from, srcPosition + to),
+                        window(dst, dstPosition + from, dstPosition + to));
+            }
+        });
+        src.position(srcPosition + count);
+        dst.position(dstPosition + count);
+    }
+
+    private static boolean overlap(ByteBuffer src, ByteBuffer dst, int count) {
+        if (!src.hasArray() || !dst.hasArray() || src.array() != dst.array()) {
+            return false;
+        }
+        int srcOffset = src.arrayOffset() + src.position();
+        int dstOffset = dst.arrayOffset() + dst.position();
+        return Math.abs(dstOffset - srcOffset) < count;
+    }
+
+    private static CharBuffer window(CharBuffer buffer, int from, int to) {
+        CharBuffer window = buffer.duplicate();
+        window.limit(to);
+        window.position(from);
+        return window;
+    }
+
+    private static ByteBuffer window(ByteBuffer buffer, int from, int to) {
+        ByteBuffer window = buffer.duplicate();
+        window.limit(to);
+        window.position(from);
+        return window;
+    }
+
+    private void run(Range range) {
+        if (range.to - range.from <= threshold) {
+            range.translate(range.from, range.to);
+        } else {
+            pool.invoke(new Chunk(range, range.from, range.to));
+        }
+    }
+
+    private abstract static class Range {
+        final int from;
+        final int to;
+
+        Range(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        abstract void translate(int from, int to);
+    }
+
+    private class Chunk extends RecursiveAction {
+        private final Range range;
+        private final int from;
+        private final int to;
+
+        Chunk(Range range, int from, int to) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                range.translate(from, to);
+                return;
+            }
+            // keep split points on 8-element boundaries where we can, so byte buffers stay on their
+            // eight-at-a-time path
+            int half = (to - from) >>> 1;
+            int mid = from + (half >= 8 ? half & ~7 : half);
+            invokeAll(new Chunk(range, from, mid), new Chunk(range, mid, to));
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+package mockdemo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+// Hash index from each encoded value in a ROT13List's delegate to the (sorted) positions holding it, so that
+// contains() and indexOf() needn't scan the delegate.
+// Appends, removals from the end and set() keep it exact. Inserting or removing mid-list would shift every later
+// position, so instead the counts are kept right (contains() stays constant time, as does indexOf() of something
+// that isn't there) and, while the positions are out of date, indexOf() scans the delegate as if there were no
+// index. They're only rebuilt, with one pass over the delegate, once a run of lookups goes by without another
+// mid-list change - so alternating changes and lookups cost a scan each, not a rebuild each. Bulk removals just
+// mark the whole index for rebuilding. Only changes made through the ROT13List are seen - the delegate mustn't be
+// modified behind its back.
+final class ROT13Index {
+    // scanning lookups allowed between mid-list changes before the positions are rebuilt
+    private static final int SCANS_BEFORE_REBUILD = 8;
+
+    private final HashMap<String, Positions> positions = new HashMap<String, Positions>();
+    private boolean positionsStale;
+    private int staleScans;
+    private boolean stale;
+
+    ROT13Index(List<String> delegate) {
+        rebuild(delegate);
+    }
+
+    boolean contains(String encoded, List<String> delegate) {
+        if (stale) {
+            rebuild(delegate);
+        }
+        return positions.containsKey(encoded);
+    }
+
+    int indexOf(String encoded, List<String> delegate) {
+        Positions p = lookup(encoded, delegate);
+        if (p == null) {
+            return -1;
+        }
+        return positionsStale ? delegate.indexOf(encoded) : p.indices[0];
+    }
+
+    int lastIndexOf(String encoded, List<String> delegate) {
+        Positions p = lookup(encoded, delegate);
+        if (p == null) {
+            return -1;
+        }
+        return positionsStale ? delegate.lastIndexOf(encoded) : p.indices[p.count - 1];
+    }
+
+    void inserted(String encoded, int index, int sizeBefore) {
+        if (index != sizeBefore) {
+            markPositionsStale();
+        }
+        Positions p = positions.get(encoded);
+        if (p == null) {
+            positions.put(encoded, new Positions(index));
+        } else {
+            p.add(index, positionsStale);
+        }
+    }
+
+    void removed(String encoded, int index, int sizeBefore) {
+        if (index != sizeBefore - 1) {
+            markPositionsStale();
+        }
+        Positions p = positions.get(encoded);
+        if (p != null) {
+            p.remove(index, positionsStale);
+            if (p.count == 0) {
+                positions.remove(encoded);
+            }
+        }
+    }
+
+    // set() shifts nothing, so it's an exact remove and insert at the same position
+    void replaced(String oldEncoded, String encoded, int index) {
+        removed(oldEncoded, index, index + 1);
+        inserted(encoded, index, index);
+    }
+
+    void cleared() {
+        positions.clear();
+        positionsStale = false;
+        stale = false;
+    }
+
+    void invalidate() {
+        positions.clear();
+        stale = true;
+    }
+
+    // the entry for the value, whose positions are only to be used if they aren't stale
+    private Positions lookup(String encoded, List<String> delegate) {
+        if (stale) {
+            rebuild(delegate);
+        }
+        Positions p = positions.get(encoded);
+        if (p != null && positionsStale && ++staleScans > SCANS_BEFORE_REBUILD) {
+            rebuild(delegate);
+            p = positions.get(encoded);
+        }
+        return p;
+    }
+
+    private void markPositionsStale() {
+        positionsStale = true;
+        staleScans = 0;
+    }
+
+    private void rebuild(List<String> delegate) {
+        positions.clear();
+        int index = 0;
+        for (String encoded : delegate) {
+            Positions p = positions.get(encoded);
+            if (p == null) {
+                positions.put(encoded, new Positions(index));
+            } else {
+                p.add(index, true);
+            }
+            index++;
+        }
+        positionsStale = false;
+        stale = false;
+    }
+
+    private static final class Positions {
+        int[] indices;
+        int count;
+
+        Positions(int index) {
+            indices = new int[]{index};
+            count = 1;
+        }
+
+        // with anyOrder (i.e. while positions are stale anyway), skip keeping indices sorted
+        void add(int index, boolean anyOrder) {
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, count * 2);
+            }
+            int at = anyOrder ? count : insertionPoint(index);
+            System.arraycopy(indices, at, indices, at + 1, count - at);
+            indices[at] = index;
+            count++;
+        }
+
+        void remove(int index, boolean anyOrder) {
+            int at = anyOrder ? count - 1 : Arrays.binarySearch(indices, 0, count, index);
+            if (at >= 0) {
+                System.arraycopy(indices, at + 1, indices, at, count - at - 1);
+                count--;
+            }
+        }
+
+        private int insertionPoint(int index) {
+            int at = Arrays.binarySearch(indices, 0, count, index);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+
+}
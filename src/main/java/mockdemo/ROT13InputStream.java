@@ -0,0 +1,29 @@
+package mockdemo;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Applies ROT13 to ASCII/Latin-1 (or UTF-8) bytes as they are read from the underlying stream.
+public class ROT13InputStream extends FilterInputStream {
+
+    public ROT13InputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        return b < 0 ? b : ROT13List.rot13((byte) b) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int count = super.read(b, off, len);
+        if (count > 0) {
+            ROT13List.translate(b, off, off + count);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,481 @@
+package mockdemo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.RandomAccess;
+import java.util.zip.CRC32;
+
+// An in-memory List<String> which checkpoints itself as a full snapshot plus a journal of the changes made since,
+// meant as the delegate of a ROT13List so it's the encoded elements which get written:
+// new ROT13List(new ROT13JournaledList(dir, "names", ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD)).
+// Every add, set, remove and clear is appended to the journal as a small binary delta (an op byte, a varint
+// index and the element, preceded by its length and followed by its CRC32), so the I/O per checkpoint is
+// proportional to the churn, not to the size of the list.
+// Once the journal outgrows both the last snapshot and snapshotThreshold, a new snapshot is written and the
+// journal started afresh, which keeps the replay on load bounded.
+// Both files carry a snapshot number and the journal is only replayed onto the snapshot it was started from, so
+// a crash between writing a snapshot and resetting the journal can't apply changes twice. A journal is replayed
+// up to the first record that's cut short or fails its checksum, as after a crash, and cut back to there.
+// Not thread-safe.
+public class ROT13JournaledList extends AbstractList<String> implements RandomAccess, Closeable {
+    public static final long DEFAULT_SNAPSHOT_THRESHOLD = 1 << 20;
+
+    private static final int SNAPSHOT_MAGIC = 0x52313353;
+    private static final int JOURNAL_MAGIC = 0x5231334b;
+    private static final int JOURNAL_HEADER_SIZE = 12;
+
+    private static final int ADD = 1;
+    private static final int SET = 2;
+    private static final int REMOVE = 3;
+    private static final int CLEAR = 4;
+
+    private final File directory;
+    private final String name;
+    private final long snapshotThreshold;
+    private final ArrayList<String> elements = new ArrayList<String>();
+
+    private long snapshotNumber;
+    private long snapshotBytes;
+    private DataOutputStream journal;
+    private CountingOutputStream journalCounter;
+    private long journalStart;
+    // each record is put together here first, to be measured and checksummed
+    private final RecordBuffer record = new RecordBuffer();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+    // set when a journal write fails part way; the journal may end in half a record, so nothing more can go after
+    // it until checkpoint() starts a new one
+    private IOException journalFailure;
+
+    public ROT13JournaledList(File directory, String name, long snapshotThreshold) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        this.snapshotThreshold = snapshotThreshold;
+        File snapshot = snapshotFile();
+        if (snapshot.exists()) {
+            loadSnapshot(snapshot);
+        }
+        long validBytes = replayJournal();
+        if (validBytes < 0) {
+            startJournal();
+        } else {
+            // drop anything after the last whole record, then carry on appending
+            RandomAccessFile raf = new RandomAccessFile(journalFile(), "rw");
+            try {
+                raf.setLength(validBytes);
+            } finally {
+                raf.close();
+            }
+            openJournal(new FileOutputStream(journalFile(), true), validBytes);
+        }
+    }
+
+    @Override
+    public String get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    // each change is checked, then journaled, and only then made - so if the journal can't be written, the list
+    // is left as it was
+
+    @Override
+    public String set(int index, String element) {
+        checkIndex(index, elements.size());
+        record(SET, index, element);
+        String old = elements.set(index, element);
+        checkpointIfDue();
+        return old;
+    }
+
+    @Override
+    public void add(int index, String element) {
+        checkIndex(index, elements.size() + 1);
+        record(ADD, index, element);
+        elements.add(index, element);
+        modCount++;
+        checkpointIfDue();
+    }
+
+    @Override
+    public String remove(int index) {
+        checkIndex(index, elements.size());
+        record(REMOVE, index, null);
+        String old = elements.remove(index);
+        modCount++;
+        checkpointIfDue();
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        record(CLEAR, 0, null);
+        elements.clear();
+        modCount++;
+        checkpointIfDue();
+    }
+
+    public long getJournalBytes() {
+        return journalStart + journalCounter.count;
+    }
+
+    // pushes buffered journal records out to the OS (not necessarily to the disk)
+    public void flush() throws IOException {
+        journal.flush();
+    }
+
+    // writes a full snapshot now and starts a new, empty journal
+    public void checkpoint() throws IOException {
+        File tmp = new File(directory, name + ".snapshot.tmp");
+        long number = snapshotNumber + 1;
+        FileOutputStream file = new FileOutputStream(tmp);
+        try {
+            CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(file));
+            DataOutputStream out = new DataOutputStream(counter);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(number);
+            writeVarInt(out, elements.size());
+            for (String element : elements) {
+                writeString(out, element);
+            }
+            out.flush();
+            file.getFD().sync();
+            snapshotBytes = counter.count;
+        } finally {
+            file.close();
+        }
+        Files.move(tmp.toPath(), snapshotFile().toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        snapshotNumber = number;
+        if (journalFailure == null) {
+            journal.close();
+        } else {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                // it's being replaced anyway
+            }
+        }
+        startJournal();
+        journalFailure = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    private File snapshotFile() {
+        return new File(directory, name + ".snapshot");
+    }
+
+    private File journalFile() {
+        return new File(directory, name + ".journal");
+    }
+
+    private void record(int op, int index, String element) {
+        if (journalFailure != null) {
+            throw new UncheckedIOException("journal unusable since an earlier failure - checkpoint() to recover",
+                    journalFailure);
+        }
+        try {
+            record.reset();
+            recordOut.writeByte(op);
+            if (op != CLEAR) {
+                writeVarInt(recordOut, index);
+            }
+            if (op == ADD || op == SET) {
+                writeString(recordOut, element);
+            }
+            crc.reset();
+            record.updateChecksum(crc);
+            writeVarInt(journal, record.size());
+            record.writeTo(journal);
+            journal.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            journalFailure = e;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // once the change is in both the journal and the list
+    private void checkpointIfDue() {
+        long journalBytes = getJournalBytes();
+        if (journalBytes > snapshotThreshold && journalBytes > snapshotBytes) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void startJournal() throws IOException {
+        openJournal(new FileOutputStream(journalFile()), 0);
+        journal.writeInt(JOURNAL_MAGIC);
+        journal.writeLong(snapshotNumber);
+        journal.flush();
+    }
+
+    private void openJournal(FileOutputStream file, long start) {
+        journalCounter = new CountingOutputStream(new BufferedOutputStream(file));
+        journal = new DataOutputStream(journalCounter);
+        journalStart = start;
+    }
+
+    private void loadSnapshot(File snapshot) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)));
+        try {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a ROT13JournaledList snapshot: " + snapshot);
+            }
+            snapshotNumber = in.readLong();
+            int size = readVarInt(in);
+            elements.ensureCapacity(size);
+            for (int i = 0; i < size; i++) {
+                elements.add(readString(in));
+            }
+        } finally {
+            in.close();
+        }
+        snapshotBytes = snapshot.length();
+    }
+
+    // applies the journal's records to the snapshot just loaded, returning the length of the journal up to the
+    // end of the last good record - or -1 if there's no journal belonging to this snapshot
+    private long replayJournal() throws IOException {
+        File file = journalFile();
+        long end = file.length();
+        if (end < JOURNAL_HEADER_SIZE) {
+            return -1;
+        }
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+        DataInputStream in = new DataInputStream(counter);
+        try {
+            if (in.readInt() != JOURNAL_MAGIC) {
+                throw new IOException("not a ROT13JournaledList journal: " + file);
+            }
+            if (in.readLong() != snapshotNumber) {
+                return -1;
+            }
+            CRC32 check = new CRC32();
+            while (true) {
+                long valid = counter.count;
+                byte[] payload = readRecord(in, end - valid, check);
+                if (payload == null || !apply(payload)) {
+                    return valid;
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    // the next record's op, index and element, or null at the end of the journal or at a record which runs past
+    // it or fails its checksum
+    private static byte[] readRecord(DataInputStream in, long available, CRC32 check) throws IOException {
+        int length = 0;
+        int lengthBytes = 0;
+        int b;
+        do {
+            if (lengthBytes == 5 || lengthBytes == available) {
+                return null;
+            }
+            b = in.read();
+            if (b < 0) {
+                return null;
+            }
+            length |= (b & 0x7f) << (7 * lengthBytes++);
+        } while ((b & 0x80) != 0);
+        if (length <= 0 || length > available - lengthBytes - 4) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        check.reset();
+        check.update(payload, 0, length);
+        return in.readInt() == (int) check.getValue() ? payload : null;
+    }
+
+    // false, changing nothing, if the record doesn't make sense for the list as it stands
+    private boolean apply(byte[] payload) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int size = elements.size();
+        try {
+            switch (in.readUnsignedByte()) {
+                case ADD: {
+                    int index = readVarInt(in);
+                    String element = readString(in);
+                    if (index < 0 || index > size || in.available() > 0) {
+                        return false;
+                    }
+                    elements.add(index, element);
+                    return true;
+                }
+                case SET: {
+                    int index = readVarInt(in);
+                    String element = readString(in);
+                    if (index < 0 || index >= size || in.available() > 0) {
+                        return false;
+                    }
+                    elements.set(index, element);
+                    return true;
+                }
+                case REMOVE: {
+                    int index = readVarInt(in);
+                    if (index < 0 || index >= size || in.available() > 0) {
+                        return false;
+                    }
+                    elements.remove(index);
+                    return true;
+                }
+                case CLEAR:
+                    if (in.available() > 0) {
+                        return false;
+                    }
+                    elements.clear();
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (IOException e) {
+            // the record ends part way through, or holds a bad varint
+            return false;
+        }
+    }
+
+    // strings are a varint of (length + 1) << 1, 0 for null, with the low bit set if the chars need two bytes
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        boolean wide = false;
+        for (int i = 0; i < s.length() && !wide; i++) {
+            wide = s.charAt(i) > 0xff;
+        }
+        writeVarInt(out, (s.length() + 1) << 1 | (wide ? 1 : 0));
+        for (int i = 0; i < s.length(); i++) {
+            if (wide) {
+                out.writeChar(s.charAt(i));
+            } else {
+                out.writeByte(s.charAt(i));
+            }
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int header = readVarInt(in);
+        if (header == 0) {
+            return null;
+        }
+        char[] chars = new char[(header >>> 1) - 1];
+        boolean wide = (header & 1) != 0;
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = wide ? in.readChar() : (char) in.readUnsignedByte();
+        }
+        return new String(chars);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("corrupt varint");
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        void updateChecksum(CRC32 crc) {
+            crc.update(buf, 0, count);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+}
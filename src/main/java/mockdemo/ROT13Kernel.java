@@ -0,0 +1,40 @@
+package mockdemo;
+
+// The inner loop behind every bulk ROT13 translation: runs of chars or bytes through ROT13List's lookup tables.
+// This is the portable scalar version; on Java 17+ the multi-release jar swaps in the one from src/main/java17,
+// which hands long runs to the Vector API when jdk.incubator.vector is available.
+final class ROT13Kernel {
+
+    private ROT13Kernel() {
+    }
+
+    static boolean isVectorized() {
+        return false;
+    }
+
+    static void translate(char[] chars, int from, int to) {
+        scalar(chars, from, to);
+    }
+
+    static void translate(byte[] bytes, int from, int to) {
+        scalar(bytes, from, to);
+    }
+
+    static void scalar(char[] chars, int from, int to) {
+        char[] table = ROT13List.TABLE;
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (c < table.length) {
+                chars[i] = table[c];
+            }
+        }
+    }
+
+    static void scalar(byte[] bytes, int from, int to) {
+        byte[] table = ROT13List.BYTE_TABLE;
+        for (int i = from; i < to; i++) {
+            bytes[i] = table[bytes[i] & 0xff];
+        }
+    }
+
+}
@@ -1,38 +1,140 @@
 package mockdemo;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 public class ROT13List extends AbstractList<String> {
+    // ROT13 translation for every ASCII char; everything above 0x7f is left alone
+    static final char[] TABLE = new char[128];
+
+    // the same translation for single bytes of ASCII/Latin-1 (or UTF-8) text
+    static final byte[] BYTE_TABLE = new byte[256];
+
+    private static final int APPEND_CHUNK_SIZE = 1024;
+    // containsAll() arguments bigger than this are checked against a HashSet of the delegate rather than one scan
+    // of it per element
+    private static final int CONTAINS_ALL_SCANS = 8;
+
+    static {
+        for (char c = 0; c < TABLE.length; c++) {
+            TABLE[c] = c;
+        }
+        for (int i = 0; i < 26; i++) {
+            TABLE['A' + i] = (char) ('A' + ((i + 13) % 26));
+            TABLE['a' + i] = (char) ('a' + ((i + 13) % 26));
+        }
+        for (int i = 0; i < BYTE_TABLE.length; i++) {
+            BYTE_TABLE[i] = (byte) (i < TABLE.length ? TABLE[i] : i);
+        }
+    }
+
     private final List<String> delegate;
+    private final ROT13DecodeCache cache;
+    private final ROT13Index hashIndex;
+    private final ROT13Metrics metrics;
 
     public ROT13List(List<String> delegate) {
+        this(delegate, 0, false, null);
+    }
+
+    private ROT13List(List<String> delegate, int decodeCacheSize, boolean indexed, ROT13Metrics metrics) {
         this.delegate = delegate;
+        this.cache = decodeCacheSize == 0 ? null : new ROT13DecodeCache(decodeCacheSize);
+        this.hashIndex = indexed ? new ROT13Index(delegate) : null;
+        this.metrics = metrics;
+    }
+
+    // for a ROT13List with any of the optional extras: ROT13List.builder(delegate).decodeCacheSize(64).build()
+    public static Builder builder(List<String> delegate) {
+        return new Builder(delegate);
+    }
+
+    // null unless this list was created with a decode cache
+    public ROT13DecodeCache getDecodeCache() {
+        return cache;
+    }
+
+    public boolean isIndexed() {
+        return hashIndex != null;
     }
 
+    // null unless this list was created with metrics
+    public ROT13Metrics getMetrics() {
+        return metrics;
+    }
+
+    // Each instrumented method has one body, marking the time before it starts and either side of its delegate
+    // call, and then recording the lot. Without metrics, mark() never reads the clock and record() does nothing.
+
     @Override
     public String get(int index) {
-        return rot13(delegate.get(index));
+        long start = mark();
+        String encoded = delegate.get(index);
+        long fetched = mark();
+        String decoded = decode(encoded);
+        record(ROT13Metrics.Operation.GET, start, start, fetched, null, decoded);
+        return decoded;
     }
 
     @Override
     public String set(int index, String element) {
-        return rot13(delegate.set(index, rot13(element)));
+        long start = mark();
+        String encoded = rot13(element);
+        long delegateStart = mark();
+        String old = delegate.set(index, encoded);
+        if (hashIndex != null) {
+            hashIndex.replaced(old, encoded, index);
+        }
+        long delegateEnd = mark();
+        String decoded = decodeRemoved(old);
+        record(ROT13Metrics.Operation.SET, start, delegateStart, delegateEnd, element, decoded);
+        return decoded;
     }
 
     @Override
     public void add(int index, String element) {
-        delegate.add(index, rot13(element));
+        long start = mark();
+        String encoded = rot13(element);
+        long delegateStart = mark();
+        if (hashIndex == null) {
+            delegate.add(index, encoded);
+        } else {
+            int sizeBefore = delegate.size();
+            delegate.add(index, encoded);
+            hashIndex.inserted(encoded, index, sizeBefore);
+        }
+        record(ROT13Metrics.Operation.ADD, start, delegateStart, mark(), element, null);
     }
 
     @Override
     public int indexOf(Object o) {
-        return delegate.indexOf(rot13((String) o));
+        long start = mark();
+        String encoded = rot13((String) o);
+        long delegateStart = mark();
+        int index = hashIndex != null ? hashIndex.indexOf(encoded, delegate) : delegate.indexOf(encoded);
+        record(ROT13Metrics.Operation.INDEX_OF, start, delegateStart, mark(), o, null);
+        return index;
     }
 
     @Override
     public int lastIndexOf(Object o) {
-        return delegate.lastIndexOf(rot13((String) o));
+        long start = mark();
+        String encoded = rot13((String) o);
+        long delegateStart = mark();
+        int index = hashIndex != null ? hashIndex.lastIndexOf(encoded, delegate) : delegate.lastIndexOf(encoded);
+        record(ROT13Metrics.Operation.LAST_INDEX_OF, start, delegateStart, mark(), o, null);
+        return index;
     }
 
     @Override
@@ -42,44 +144,597 @@ public class ROT13List extends AbstractList<String> {
 
     @Override
     public boolean contains(Object o) {
-        return delegate.contains(rot13((String) o));
+        long start = mark();
+        String encoded = rot13((String) o);
+        long delegateStart = mark();
+        boolean found = hashIndex != null ? hashIndex.contains(encoded, delegate) : delegate.contains(encoded);
+        record(ROT13Metrics.Operation.CONTAINS, start, delegateStart, mark(), o, null);
+        return found;
     }
 
     @Override
     public boolean add(String s) {
-        return delegate.add(rot13(s));
+        long start = mark();
+        String encoded = rot13(s);
+        long delegateStart = mark();
+        boolean added = delegate.add(encoded);
+        if (added && hashIndex != null) {
+            int size = delegate.size();
+            hashIndex.inserted(encoded, size - 1, size - 1);
+        }
+        record(ROT13Metrics.Operation.ADD, start, delegateStart, mark(), s, null);
+        return added;
     }
 
+    // with a cache or index this is counted as the indexOf() and remove(int) it's made of
     @Override
     public boolean remove(Object o) {
-        return delegate.remove(rot13((String) o));
+        if (cache == null && hashIndex == null) {
+            long start = mark();
+            String encoded = rot13((String) o);
+            long delegateStart = mark();
+            boolean removed = delegate.remove(encoded);
+            record(ROT13Metrics.Operation.REMOVE, start, delegateStart, mark(), o, null);
+            return removed;
+        }
+        // need to know which element went, to keep the cache and index up to date
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
     }
 
     @Override
     public String remove(int index) {
-        return rot13(delegate.remove(index));
+        long start = mark();
+        String old = delegate.remove(index);
+        if (hashIndex != null) {
+            hashIndex.removed(old, index, delegate.size() + 1);
+        }
+        long removed = mark();
+        String decoded = decodeRemoved(old);
+        record(ROT13Metrics.Operation.REMOVE, start, start, removed, null, decoded);
+        return decoded;
     }
 
     @Override
     public void clear() {
         delegate.clear();
+        if (cache != null) {
+            cache.clear();
+        }
+        if (hashIndex != null) {
+            hashIndex.cleared();
+        }
+    }
+
+    // ROT13 is a bijection, so two ROT13Lists are equal exactly when their delegates are - no decoding needed
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof ROT13List) {
+            return delegate.equals(((ROT13List) o).delegate);
+        }
+        return super.equals(o);
+    }
+
+    // List.hashCode() over the decoded elements, but worked out char by char from the encoded ones
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (String encoded : delegate) {
+            int h = 0;
+            if (encoded != null) {
+                for (int i = 0; i < encoded.length(); i++) {
+                    h = 31 * h + rot13(encoded.charAt(i));
+                }
+            }
+            hashCode = 31 * hashCode + h;
+        }
+        return hashCode;
+    }
+
+    // decodes each element once up front rather than on every comparison, then writes the original encoded
+    // instances back in their new order, so nothing is re-encoded either
+    @Override
+    public void sort(Comparator<? super String> c) {
+        String[] encoded = delegate.toArray(new String[0]);
+        SortEntry[] entries = new SortEntry[encoded.length];
+        for (int i = 0; i < encoded.length; i++) {
+            entries[i] = new SortEntry(rot13(encoded[i]), encoded[i]);
+        }
+        final Comparator<? super String> comparator = c != null ? c : new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.compareTo(b);
+            }
+        };
+        Arrays.sort(entries, new Comparator<SortEntry>() {
+            @Override
+            public int compare(SortEntry a, SortEntry b) {
+                return comparator.compare(a.decoded, b.decoded);
+            }
+        });
+        ListIterator<String> it = delegate.listIterator();
+        for (SortEntry entry : entries) {
+            it.next();
+            it.set(entry.encoded);
+        }
+        if (hashIndex != null) {
+            hashIndex.invalidate();
+        }
+    }
+
+    // element index as a CharSequence which decodes chars only as they're read, for callers who just want a prefix
+    // or to scan for a delimiter; null if the element is null. Reflects the element as it was when the view was taken.
+    public CharSequence getView(int index) {
+        String encoded = delegate.get(index);
+        return encoded == null ? null : new ROT13CharSequence(encoded, 0, encoded.length());
+    }
+
+    // an immutable, packed, already-decoded copy of the list as it stands, for read-only use
+    public ROT13Snapshot snapshot() {
+        return new ROT13Snapshot(delegate);
+    }
+
+    // bulk operations encode their argument once and make one bulk call on the delegate, rather than going
+    // through AbstractCollection's element-at-a-time loops
+    @Override
+    public boolean addAll(Collection<? extends String> c) {
+        long start = mark();
+        List<String> encoded = encodeAll(c);
+        long delegateStart = mark();
+        boolean modified = hashIndex == null ? delegate.addAll(encoded) : addAllEncoded(delegate.size(), encoded);
+        record(ROT13Metrics.Operation.ADD_ALL, start, delegateStart, mark(), c, null);
+        return modified;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends String> c) {
+        long start = mark();
+        List<String> encoded = encodeAll(c);
+        long delegateStart = mark();
+        boolean modified = hashIndex == null ? delegate.addAll(index, encoded) : addAllEncoded(index, encoded);
+        record(ROT13Metrics.Operation.ADD_ALL, start, delegateStart, mark(), c, null);
+        return modified;
+    }
+
+    private boolean addAllEncoded(int index, List<String> encoded) {
+        int sizeBefore = delegate.size();
+        boolean modified = delegate.addAll(index, encoded);
+        for (int i = 0; modified && i < encoded.size(); i++) {
+            hashIndex.inserted(encoded.get(i), index + i, sizeBefore + i);
+        }
+        return modified;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        long start = mark();
+        Collection<String> encoded = encodeSet(c);
+        long delegateStart = mark();
+        boolean found = encoded != null && containsAllEncoded(encoded);
+        record(ROT13Metrics.Operation.CONTAINS_ALL, start, delegateStart, mark(), c, null);
+        return found;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        long start = mark();
+        Collection<String> encoded = encodeStrings(c);
+        long delegateStart = mark();
+        boolean modified = bulkModified(delegate.removeAll(encoded));
+        record(ROT13Metrics.Operation.REMOVE_ALL, start, delegateStart, mark(), c, null);
+        return modified;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        long start = mark();
+        Collection<String> encoded = encodeStrings(c);
+        long delegateStart = mark();
+        boolean modified = bulkModified(delegate.retainAll(encoded));
+        record(ROT13Metrics.Operation.RETAIN_ALL, start, delegateStart, mark(), c, null);
+        return modified;
+    }
+
+    private boolean containsAllEncoded(Collection<String> encoded) {
+        if (hashIndex != null) {
+            for (String e : encoded) {
+                if (!hashIndex.contains(e, delegate)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (encoded.size() > CONTAINS_ALL_SCANS) {
+            return new HashSet<String>(delegate).containsAll(encoded);
+        }
+        return delegate.containsAll(encoded);
+    }
+
+    private boolean bulkModified(boolean modified) {
+        if (modified && cache != null) {
+            cache.clear();
+        }
+        if (modified && hashIndex != null) {
+            hashIndex.invalidate();
+        }
+        return modified;
+    }
+
+    private List<String> encodeAll(Collection<? extends String> c) {
+        if (c instanceof ROT13List) {
+            // already encoded - but copy, in case it's us
+            return new ArrayList<String>(((ROT13List) c).delegate);
+        }
+        ArrayList<String> encoded = new ArrayList<String>(c.size());
+        for (String s : c) {
+            encoded.add(rot13(s));
+        }
+        return encoded;
+    }
+
+    // the Strings in c encoded into a HashSet, or null if c holds anything that isn't a String (or null)
+    private static Collection<String> encodeSet(Collection<?> c) {
+        if (c instanceof ROT13List) {
+            return new HashSet<String>(((ROT13List) c).delegate);
+        }
+        HashSet<String> encoded = new HashSet<String>();
+        for (Object o : c) {
+            if (o != null && !(o instanceof String)) {
+                return null;
+            }
+            encoded.add(rot13((String) o));
+        }
+        return encoded;
+    }
+
+    // the Strings in c encoded into a HashSet, skipping anything else since we could never hold it
+    private static Collection<String> encodeStrings(Collection<?> c) {
+        if (c instanceof ROT13List) {
+            return new HashSet<String>(((ROT13List) c).delegate);
+        }
+        HashSet<String> encoded = new HashSet<String>();
+        for (Object o : c) {
+            if (o == null || o instanceof String) {
+                encoded.add(rot13((String) o));
+            }
+        }
+        return encoded;
+    }
+
+    // iterate with the delegate's own iterator rather than AbstractList's get(index) loop, which is quadratic
+    // over a LinkedList; equals(), hashCode() and toString() all iterate this way too
+    @Override
+    public Iterator<String> iterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<String> listIterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<String> listIterator(int index) {
+        return new ROT13ListIterator(delegate.listIterator(index));
+    }
+
+    // splits however the delegate's own spliterator does, decoding as elements are handed out, so
+    // parallelStream() scales with the delegate - decoding never touches the (single-threaded) decode cache
+    @Override
+    public Spliterator<String> spliterator() {
+        return new ROT13Spliterator(delegate.spliterator());
+    }
+
+    private long mark() {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    // encoded is the argument which was encoded: a String, or a collection of them for the bulk operations
+    private void record(ROT13Metrics.Operation operation, long start, long delegateStart, long delegateEnd,
+                        Object encoded, String decoded) {
+        if (metrics != null) {
+            long delegateNanos = delegateEnd - delegateStart;
+            metrics.record(operation, delegateNanos, System.nanoTime() - start - delegateNanos, charCount(encoded),
+                    decoded == null ? 0 : decoded.length());
+        }
+    }
+
+    // the chars which were put through the codec - none for another ROT13List, whose elements are already encoded
+    private static long charCount(Object encoded) {
+        if (encoded instanceof String) {
+            return ((String) encoded).length();
+        }
+        long chars = 0;
+        if (encoded instanceof Collection && !(encoded instanceof ROT13List)) {
+            for (Object o : (Collection<?>) encoded) {
+                if (o instanceof String) {
+                    chars += ((String) o).length();
+                }
+            }
+        }
+        return chars;
+    }
+
+    private String decode(String encoded) {
+        return cache == null ? rot13(encoded) : cache.decode(encoded);
+    }
+
+    // decodes an element that has just left the delegate, dropping it from the cache
+    private String decodeRemoved(String encoded) {
+        if (cache != null) {
+            String decoded = cache.invalidate(encoded);
+            if (decoded != null) {
+                return decoded;
+            }
+        }
+        return rot13(encoded);
     }
 
     public static String rot13(String s) {
         if (s == null) {
             return null;
         }
-        StringBuilder result = new StringBuilder();
-        for (char c : s.toCharArray()) {
-            if (c >= 'A' && c <= 'Z') {
-                result.append((char) ('A' + ((13 + c - 'A') % 26)));
-            } else if (c >= 'a' && c <= 'z') {
-                result.append((char) ('a' + ((13 + c - 'a') % 26)));
-            } else {
-                result.append(c);
+        int length = s.length();
+        int i = firstTranslated(s, length);
+        if (i == length) {
+            return s;
+        }
+        char[] result = new char[length];
+        s.getChars(0, length, result, 0);
+        translate(result, i, length);
+        return new String(result);
+    }
+
+    // index of the first char in s which ROT13 would change, or length if there is none
+    private static int firstTranslated(String s, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < TABLE.length && TABLE[c] != c) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    public static void rot13(char[] src, int off, int len, char[] dst, int dstOff) {
+        if (off < 0 || len < 0 || off > src.length - len || dstOff < 0 || dstOff > dst.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (src == dst && dstOff > off) {
+            // overlapping shift to the right - walk backwards so we don't read chars we've already written
+            for (int i = len - 1; i >= 0; i--) {
+                dst[dstOff + i] = rot13(src[off + i]);
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                dst[dstOff + i] = rot13(src[off + i]);
+            }
+        }
+    }
+
+    public static void rot13InPlace(char[] chars) {
+        translate(chars, 0, chars.length);
+    }
+
+    public static void rot13InPlace(char[] chars, int off, int len) {
+        if (off < 0 || len < 0 || off > chars.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        translate(chars, off, off + len);
+    }
+
+    public static void rot13(CharSequence s, Appendable out) throws IOException {
+        int length = s.length();
+        if (out instanceof StringBuilder) {
+            StringBuilder sb = (StringBuilder) out;
+            sb.ensureCapacity(sb.length() + length);
+            for (int i = 0; i < length; i++) {
+                sb.append(rot13(s.charAt(i)));
+            }
+        } else if (out instanceof Writer) {
+            // hand the writer whole chunks rather than one char at a time
+            char[] chunk = new char[Math.min(length, APPEND_CHUNK_SIZE)];
+            for (int start = 0; start < length; start += chunk.length) {
+                int count = Math.min(chunk.length, length - start);
+                for (int i = 0; i < count; i++) {
+                    chunk[i] = rot13(s.charAt(start + i));
+                }
+                ((Writer) out).write(chunk, 0, count);
             }
+        } else {
+            for (int i = 0; i < length; i++) {
+                out.append(rot13(s.charAt(i)));
+            }
+        }
+    }
+
+    public static char rot13(char c) {
+        return c < TABLE.length ? TABLE[c] : c;
+    }
+
+    static void translate(char[] chars, int from, int to) {
+        ROT13Kernel.translate(chars, from, to);
+    }
+
+    static byte rot13(byte b) {
+        return BYTE_TABLE[b & 0xff];
+    }
+
+    static void translate(byte[] bytes, int from, int to) {
+        ROT13Kernel.translate(bytes, from, to);
+    }
+
+    private class ROT13ListIterator implements ListIterator<String> {
+        private final ListIterator<String> it;
+        private String lastReturned;
+
+        ROT13ListIterator(ListIterator<String> it) {
+            this.it = it;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public String next() {
+            lastReturned = it.next();
+            return decode(lastReturned);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return it.hasPrevious();
+        }
+
+        @Override
+        public String previous() {
+            lastReturned = it.previous();
+            return decode(lastReturned);
+        }
+
+        @Override
+        public int nextIndex() {
+            return it.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return it.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            it.remove();
+            if (cache != null) {
+                cache.invalidate(lastReturned);
+            }
+            if (hashIndex != null) {
+                hashIndex.invalidate();
+            }
+        }
+
+        @Override
+        public void set(String s) {
+            it.set(rot13(s));
+            if (cache != null) {
+                cache.invalidate(lastReturned);
+            }
+            if (hashIndex != null) {
+                hashIndex.invalidate();
+            }
+        }
+
+        @Override
+        public void add(String s) {
+            it.add(rot13(s));
+            if (hashIndex != null) {
+                hashIndex.invalidate();
+            }
+        }
+    }
+
+    private static class ROT13Spliterator implements Spliterator<String>, Consumer<String> {
+        private final Spliterator<String> encoded;
+        private Consumer<? super String> action;
+
+        ROT13Spliterator(Spliterator<String> encoded) {
+            this.encoded = encoded;
+        }
+
+        // we pass ourselves to the delegate as the consumer, rather than a new lambda per element
+        @Override
+        public void accept(String s) {
+            action.accept(rot13(s));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            this.action = action;
+            try {
+                return encoded.tryAdvance(this);
+            } finally {
+                this.action = null;
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            this.action = action;
+            try {
+                encoded.forEachRemaining(this);
+            } finally {
+                this.action = null;
+            }
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            Spliterator<String> split = encoded.trySplit();
+            return split == null ? null : new ROT13Spliterator(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return encoded.estimateSize();
+        }
+
+        // ROT13 is a bijection, so everything but the encoded order carries over
+        @Override
+        public int characteristics() {
+            return encoded.characteristics() & ~SORTED;
+        }
+    }
+
+    // the optional extras: decodeCacheSize keeps up to that many recently read elements decoded, for read-heavy
+    // lists; indexed keeps a hash index of the delegate's contents so contains() and indexOf() are constant time,
+    // as long as the delegate is only ever changed through this list; and metrics, when set, records calls into it
+    public static class Builder {
+        private final List<String> delegate;
+        private int decodeCacheSize;
+        private boolean indexed;
+        private ROT13Metrics metrics;
+
+        Builder(List<String> delegate) {
+            this.delegate = delegate;
+        }
+
+        public Builder decodeCacheSize(int decodeCacheSize) {
+            this.decodeCacheSize = decodeCacheSize;
+            return this;
+        }
+
+        public Builder indexed(boolean indexed) {
+            this.indexed = indexed;
+            return this;
+        }
+
+        public Builder metrics(ROT13Metrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public ROT13List build() {
+            return new ROT13List(delegate, decodeCacheSize, indexed, metrics);
+        }
+    }
+
+    private static class SortEntry {
+        final String decoded;
+        final String encoded;
+
+        SortEntry(String decoded, String encoded) {
+            this.decoded = decoded;
+            this.encoded = encoded;
         }
-        return result.toString();
     }
 
 }
@@ -0,0 +1,198 @@
+package mockdemo;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+// Load generator for ROT13Server: each connection, on its own thread, sends a message, waits until all of it has
+// come back translated (checking every byte), and goes again, for the given duration. Reports throughput and the
+// round-trip latency percentiles.
+// Messages are written whole before the reply is read, so keep them within what the socket buffers can hold
+// (a few hundred KB on Linux) or the client and server will wait on one another.
+// Usage: java mockdemo.ROT13LoadGenerator [selector|threads|virtual|host:port] [connections] [message bytes] [seconds]
+// Given a mode rather than an address, it starts a server in that mode on the loopback interface itself.
+public class ROT13LoadGenerator {
+
+    public static Result run(InetSocketAddress address, int connections, int messageSize, long durationMillis)
+            throws IOException, InterruptedException {
+        byte[] message = new byte[messageSize];
+        Random random = new Random(13);
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) (' ' + random.nextInt(95));
+        }
+        byte[] expected = message.clone();
+        ROT13List.translate(expected, 0, expected.length);
+
+        Client[] clients = new Client[connections];
+        Thread[] threads = new Thread[connections];
+        long deadline = System.nanoTime() + durationMillis * 1000000L;
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new Client(SocketChannel.open(address), message, expected, deadline);
+            threads[i] = new Thread(clients[i], "ROT13LoadGenerator-" + i);
+        }
+        long startTime = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        int total = 0;
+        for (Client client : clients) {
+            if (client.failure != null) {
+                throw new IOException("client failed", client.failure);
+            }
+            total += client.count;
+        }
+        long[] latencies = new long[total];
+        int at = 0;
+        for (Client client : clients) {
+            System.arraycopy(client.latencies, 0, latencies, at, client.count);
+            at += client.count;
+        }
+        Arrays.sort(latencies);
+        return new Result(total, (long) total * messageSize, elapsed, latencies);
+    }
+
+    private static class Client implements Runnable {
+        private final SocketChannel channel;
+        private final ByteBuffer out;
+        private final ByteBuffer in;
+        private final ByteBuffer expected;
+        private final long deadline;
+        long[] latencies = new long[1024];
+        int count;
+        Exception failure;
+
+        Client(SocketChannel channel, byte[] message, byte[] expected, long deadline) throws IOException {
+            this.channel = channel;
+            channel.socket().setTcpNoDelay(true);
+            this.out = ByteBuffer.allocateDirect(message.length);
+            out.put(message);
+            this.in = ByteBuffer.allocateDirect(message.length);
+            this.expected = ByteBuffer.wrap(expected);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            try {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        out.flip();
+                        while (out.hasRemaining()) {
+                            channel.write(out);
+                        }
+                        out.limit(out.capacity());
+                        in.clear();
+                        while (in.hasRemaining()) {
+                            if (channel.read(in) < 0) {
+                                throw new IOException("server closed the connection");
+                            }
+                        }
+                        long latency = System.nanoTime() - start;
+                        in.flip();
+                        if (!in.equals(expected)) {
+                            throw new IOException("reply wasn't the ROT13 of the message");
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = latency;
+                    }
+                } finally {
+                    channel.close();
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+    }
+
+    public static class Result {
+        private final int requests;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        Result(int requests, long bytes, long elapsedNanos, long[] sortedLatencies) {
+            this.requests = requests;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getRequestsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : requests / (elapsedNanos / 1e9);
+        }
+
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : (bytes / (1024.0 * 1024.0)) / (elapsedNanos / 1e9);
+        }
+
+        // round-trip latency at the given percentile (0-100), in nanoseconds
+        public long getLatencyPercentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d bytes in %.3f s (%.0f req/s, %.1f MB/s); latency p50 %.1f us, "
+                            + "p99 %.1f us, max %.1f us",
+                    requests, bytes, elapsedNanos / 1e9, getRequestsPerSecond(), getMegabytesPerSecond(),
+                    getLatencyPercentile(50) / 1e3, getLatencyPercentile(99) / 1e3, getLatencyPercentile(100) / 1e3);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "selector";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int messageSize = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+
+        ROT13Server server = null;
+        InetSocketAddress address;
+        int colon = target.lastIndexOf(':');
+        if (colon >= 0) {
+            address = new InetSocketAddress(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)));
+        } else {
+            ROT13Server.Mode mode = target.equals("virtual") ? ROT13Server.Mode.VIRTUAL_THREADS
+                    : ROT13Server.Mode.valueOf(target.toUpperCase());
+            server = new ROT13Server(mode, ROT13Server.DEFAULT_BUFFER_SIZE);
+            address = server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        }
+        try {
+            // a short untimed run first, to warm both ends up
+            run(address, connections, messageSize, Math.min(2000, seconds * 1000));
+            System.out.println(run(address, connections, messageSize, seconds * 1000));
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+package mockdemo;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+// A Map with String keys kept ROT13-encoded in the delegate map; values are stored as they are.
+// Lookups encode the probe key once and leave the hashing to the delegate. keySet() and entrySet() are live
+// views which decode keys only as they're iterated over.
+public class ROT13Map<V> extends AbstractMap<String, V> {
+    private final Map<String, V> delegate;
+    private Set<String> keySet;
+    private Set<Map.Entry<String, V>> entrySet;
+
+    public ROT13Map(Map<String, V> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (key == null || key instanceof String) && delegate.containsKey(ROT13List.rot13((String) key));
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return delegate.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return key == null || key instanceof String ? delegate.get(ROT13List.rot13((String) key)) : null;
+    }
+
+    @Override
+    public V put(String key, V value) {
+        return delegate.put(ROT13List.rot13(key), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key == null || key instanceof String ? delegate.remove(ROT13List.rot13((String) key)) : null;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends V> m) {
+        for (Map.Entry<? extends String, ? extends V> e : m.entrySet()) {
+            delegate.put(ROT13List.rot13(e.getKey()), e.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        if (keySet == null) {
+            keySet = new ROT13Set(delegate.keySet());
+        }
+        return keySet;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return delegate.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        // a keyed lookup rather than AbstractCollection's scan
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            if (!containsKey(e.getKey())) {
+                return false;
+            }
+            V value = get(e.getKey());
+            return value == null ? e.getValue() == null : value.equals(e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            ROT13Map.this.remove(((Map.Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, V>> iterator() {
+            final Iterator<Map.Entry<String, V>> it = delegate.entrySet().iterator();
+            return new Iterator<Map.Entry<String, V>>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Map.Entry<String, V> next() {
+                    return new Entry<V>(it.next());
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+    }
+
+    // decodes the key when it's first asked for; setValue() writes through to the delegate's entry
+    private static class Entry<V> implements Map.Entry<String, V> {
+        private final Map.Entry<String, V> encoded;
+        private String key;
+        private boolean decoded;
+
+        Entry(Map.Entry<String, V> encoded) {
+            this.encoded = encoded;
+        }
+
+        @Override
+        public String getKey() {
+            if (!decoded) {
+                key = ROT13List.rot13(encoded.getKey());
+                decoded = true;
+            }
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return encoded.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            return encoded.setValue(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            String k = getKey();
+            V v = getValue();
+            return (k == null ? e.getKey() == null : k.equals(e.getKey()))
+                    && (v == null ? e.getValue() == null : v.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            String k = getKey();
+            V v = getValue();
+            return (k == null ? 0 : k.hashCode()) ^ (v == null ? 0 : v.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+}
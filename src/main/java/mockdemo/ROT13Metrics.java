@@ -0,0 +1,230 @@
+package mockdemo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Opt-in instrumentation for ROT13List: how often each operation is called, how many chars go through the codec,
+// and how long is spent in the delegate as against encoding and decoding. Pass one to ROT13List.builder(...)
+// .metrics(...) (it may be shared between lists); a list without one doesn't touch the clock at all.
+// Everything is recorded into LongAdders, so many threads can record at once without contending, and snapshot()
+// gives a consistent-enough copy to report from. Latencies go into log-linear histograms in the manner of
+// HdrHistogram: every power of two is split into 8 buckets, so any value reported is within 12.5% of the truth.
+public class ROT13Metrics {
+
+    public enum Operation {
+        GET, SET, ADD, REMOVE, INDEX_OF, LAST_INDEX_OF, CONTAINS, ADD_ALL, CONTAINS_ALL, REMOVE_ALL, RETAIN_ALL
+    }
+
+    private final LongAdder[] counts = new LongAdder[Operation.values().length];
+    private final LongAdder charsEncoded = new LongAdder();
+    private final LongAdder charsDecoded = new LongAdder();
+    private final Histogram delegateTime = new Histogram();
+    private final Histogram codecTime = new Histogram();
+
+    public ROT13Metrics() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    // one call: the time spent in the delegate and in the codec, and how many chars were encoded and decoded
+    void record(Operation operation, long delegateNanos, long codecNanos, long encoded, long decoded) {
+        counts[operation.ordinal()].increment();
+        delegateTime.record(delegateNanos);
+        codecTime.record(codecNanos);
+        if (encoded != 0) {
+            charsEncoded.add(encoded);
+        }
+        if (decoded != 0) {
+            charsDecoded.add(decoded);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] c = new long[counts.length];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = counts[i].sum();
+        }
+        return new Snapshot(c, charsEncoded.sum(), charsDecoded.sum(), delegateTime.snapshot(), codecTime.snapshot());
+    }
+
+    public void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+        charsEncoded.reset();
+        charsDecoded.reset();
+        delegateTime.reset();
+        codecTime.reset();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    // bucket i < 8 holds exactly the value i; after that, each power of two 2^m (m >= 3) has 8 buckets of 2^(m - 3)
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder total = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            buckets[bucketOf(value)].increment();
+            total.add(value);
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            total.reset();
+        }
+
+        HistogramSnapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return new HistogramSnapshot(counts, total.sum());
+        }
+
+        static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(value);
+            int shift = magnitude - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        }
+
+        // the largest value which lands in the bucket
+        static long highestValueIn(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1;
+            long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+    }
+
+    public static class HistogramSnapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+
+        HistogramSnapshot(long[] counts, long totalNanos) {
+            this.counts = counts;
+            long n = 0;
+            for (long c : counts) {
+                n += c;
+            }
+            this.count = n;
+            this.totalNanos = totalNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0.0 : totalNanos / (double) count;
+        }
+
+        // the value at the given percentile (0-100), to within the histogram's precision
+        public long getPercentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Histogram.highestValueIn(i);
+                }
+            }
+            return Histogram.highestValueIn(counts.length - 1);
+        }
+
+        public long getMaxNanos() {
+            return getPercentileNanos(100);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.0fns p50=%dns p99=%dns max=%dns", count, getMeanNanos(),
+                    getPercentileNanos(50), getPercentileNanos(99), getMaxNanos());
+        }
+    }
+
+    public static class Snapshot {
+        private final long[] counts;
+        private final long charsEncoded;
+        private final long charsDecoded;
+        private final HistogramSnapshot delegateTime;
+        private final HistogramSnapshot codecTime;
+
+        Snapshot(long[] counts, long charsEncoded, long charsDecoded, HistogramSnapshot delegateTime,
+                 HistogramSnapshot codecTime) {
+            this.counts = counts;
+            this.charsEncoded = charsEncoded;
+            this.charsDecoded = charsDecoded;
+            this.delegateTime = delegateTime;
+            this.codecTime = codecTime;
+        }
+
+        public long getCount(Operation operation) {
+            return counts[operation.ordinal()];
+        }
+
+        public long getCharsEncoded() {
+            return charsEncoded;
+        }
+
+        // includes Strings served from a ROT13List's decode cache
+        public long getCharsDecoded() {
+            return charsDecoded;
+        }
+
+        // per call, time spent in the delegate (and in keeping a hash index up to date)
+        public HistogramSnapshot getDelegateTime() {
+            return delegateTime;
+        }
+
+        // per call, time spent encoding arguments and decoding results
+        public HistogramSnapshot getCodecTime() {
+            return codecTime;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("ROT13Metrics[");
+            for (Operation operation : Operation.values()) {
+                sb.append(operation.name().toLowerCase()).append('=').append(getCount(operation)).append(", ");
+            }
+            return sb.append("charsEncoded=").append(charsEncoded)
+                    .append(", charsDecoded=").append(charsDecoded)
+                    .append(", delegate: ").append(delegateTime)
+                    .append(", codec: ").append(codecTime)
+                    .append(']').toString();
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+package mockdemo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+// A List<String> that keeps its contents ROT13-encoded outside the Java heap, for huge lists which are mostly
+// written and rarely read. Each element is packed into direct ByteBuffer chunks - one byte per char if it fits
+// in Latin-1, otherwise two - and the only per-element heap cost is 12 bytes of index. Strings are only created
+// by get(); indexOf() and contains() compare against the packed bytes without creating any.
+// Space left behind by set() and remove() is reclaimed by compacting once it outweighs the live data.
+// Not thread-safe.
+public class ROT13OffHeapList extends AbstractList<String> implements RandomAccess {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    // lengths[] holds char count << 1, with this bit set for two-byte chars, or NULL_ELEMENT for null
+    private static final int UTF16 = 1;
+    private static final int NULL_ELEMENT = -1;
+
+    private final int chunkSize;
+    private final ArrayList<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+    private int currentEnd;
+
+    // chunk number << 32 | offset within the chunk
+    private long[] locations = new long[16];
+    private int[] lengths = new int[16];
+    private int size;
+
+    private long usedBytes;
+    private long liveBytes;
+    private byte[] scratch = new byte[64];
+
+    public ROT13OffHeapList() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public ROT13OffHeapList(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public String get(int index) {
+        checkIndex(index, size);
+        return read(index);
+    }
+
+    @Override
+    public String set(int index, String element) {
+        checkIndex(index, size);
+        String old = read(index);
+        liveBytes -= byteCount(lengths[index]);
+        int length = lengthOf(element);
+        locations[index] = store(element, length);
+        lengths[index] = length;
+        compactIfWasteful();
+        return old;
+    }
+
+    @Override
+    public void add(int index, String element) {
+        checkIndex(index, size + 1);
+        if (size == lengths.length) {
+            int capacity = size + (size >> 1);
+            locations = Arrays.copyOf(locations, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int length = lengthOf(element);
+        long location = store(element, length);
+        System.arraycopy(locations, index, locations, index + 1, size - index);
+        System.arraycopy(lengths, index, lengths, index + 1, size - index);
+        locations[index] = location;
+        lengths[index] = length;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public String remove(int index) {
+        checkIndex(index, size);
+        String old = read(index);
+        liveBytes -= byteCount(lengths[index]);
+        System.arraycopy(locations, index + 1, locations, index, size - index - 1);
+        System.arraycopy(lengths, index + 1, lengths, index, size - index - 1);
+        size--;
+        modCount++;
+        compactIfWasteful();
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+        currentEnd = 0;
+        size = 0;
+        usedBytes = 0;
+        liveBytes = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (o != null && !(o instanceof String)) {
+            return -1;
+        }
+        String s = (String) o;
+        int length = lengthOf(s);
+        for (int i = 0; i < size; i++) {
+            if (lengths[i] == length && matches(i, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (o != null && !(o instanceof String)) {
+            return -1;
+        }
+        String s = (String) o;
+        int length = lengthOf(s);
+        for (int i = size - 1; i >= 0; i--) {
+            if (lengths[i] == length && matches(i, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    // direct memory currently held, including space not yet reclaimed from removed or replaced elements
+    public long getOffHeapBytes() {
+        long total = 0;
+        for (ByteBuffer chunk : chunks) {
+            total += chunk.capacity();
+        }
+        return total;
+    }
+
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    // copies the live elements into fresh chunks, letting the old ones (and their garbage) be collected
+    public void compact() {
+        ArrayList<ByteBuffer> oldChunks = new ArrayList<ByteBuffer>(chunks);
+        chunks.clear();
+        currentEnd = 0;
+        usedBytes = 0;
+        for (int i = 0; i < size; i++) {
+            int bytes = byteCount(lengths[i]);
+            if (bytes > 0) {
+                ByteBuffer from = oldChunks.get((int) (locations[i] >>> 32));
+                from.position((int) locations[i]);
+                ensureScratch(bytes);
+                from.get(scratch, 0, bytes);
+                locations[i] = allocate(bytes);
+                ByteBuffer to = chunks.get(chunks.size() - 1);
+                to.position((int) locations[i]);
+                to.put(scratch, 0, bytes);
+            }
+        }
+        liveBytes = usedBytes;
+    }
+
+    private void compactIfWasteful() {
+        long garbage = usedBytes - liveBytes;
+        if (garbage > chunkSize && garbage > liveBytes) {
+            compact();
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+    private static int lengthOf(String s) {
+        if (s == null) {
+            return NULL_ELEMENT;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xff) {
+                return s.length() << 1 | UTF16;
+            }
+        }
+        return s.length() << 1;
+    }
+
+    private static int byteCount(int length) {
+        if (length == NULL_ELEMENT) {
+            return 0;
+        }
+        return (length & UTF16) != 0 ? length & ~UTF16 : length >>> 1;
+    }
+
+    private void ensureScratch(int bytes) {
+        if (scratch.length < bytes) {
+            scratch = new byte[Math.max(bytes, scratch.length * 2)];
+        }
+    }
+
+    // reserves room for an element, starting a new chunk if the current one hasn't got enough left
+    private long allocate(int bytes) {
+        if (chunks.isEmpty() || chunks.get(chunks.size() - 1).capacity() - currentEnd < bytes) {
+            chunks.add(ByteBuffer.allocateDirect(Math.max(chunkSize, bytes)).order(ByteOrder.nativeOrder()));
+            currentEnd = 0;
+        }
+        long location = ((long) (chunks.size() - 1) << 32) | currentEnd;
+        currentEnd += bytes;
+        usedBytes += bytes;
+        return location;
+    }
+
+    private long store(String s, int length) {
+        int bytes = byteCount(length);
+        if (bytes == 0) {
+            return 0;
+        }
+        long location = allocate(bytes);
+        liveBytes += bytes;
+        ByteBuffer chunk = chunks.get(chunks.size() - 1);
+        int offset = (int) location;
+        int count = length >>> 1;
+        if ((length & UTF16) != 0) {
+            for (int i = 0; i < count; i++) {
+                chunk.putChar(offset + 2 * i, ROT13List.rot13(s.charAt(i)));
+            }
+        } else {
+            ensureScratch(count);
+            for (int i = 0; i < count; i++) {
+                scratch[i] = (byte) ROT13List.rot13(s.charAt(i));
+            }
+            chunk.position(offset);
+            chunk.put(scratch, 0, count);
+        }
+        return location;
+    }
+
+    private String read(int index) {
+        int length = lengths[index];
+        if (length == NULL_ELEMENT) {
+            return null;
+        }
+        int count = length >>> 1;
+        if (count == 0) {
+            return "";
+        }
+        ByteBuffer chunk = chunks.get((int) (locations[index] >>> 32));
+        int offset = (int) locations[index];
+        if ((length & UTF16) != 0) {
+            char[] chars = new char[count];
+            for (int i = 0; i < count; i++) {
+                chars[i] = chunk.getChar(offset + 2 * i);
+            }
+            ROT13List.translate(chars, 0, count);
+            return new String(chars);
+        }
+        ensureScratch(count);
+        chunk.position(offset);
+        chunk.get(scratch, 0, count);
+        ROT13List.translate(scratch, 0, count);
+        return new String(scratch, 0, count, StandardCharsets.ISO_8859_1);
+    }
+
+    // whether element index (already known to be the same length and width) decodes to s
+    private boolean matches(int index, String s) {
+        int length = lengths[index];
+        if (length == NULL_ELEMENT) {
+            return s == null;
+        }
+        int count = length >>> 1;
+        ByteBuffer chunk = count == 0 ? null : chunks.get((int) (locations[index] >>> 32));
+        int offset = (int) locations[index];
+        boolean wide = (length & UTF16) != 0;
+        for (int i = 0; i < count; i++) {
+            char c = wide ? chunk.getChar(offset + 2 * i) : (char) (chunk.get(offset + i) & 0xff);
+            if (ROT13List.rot13(c) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,38 @@
+package mockdemo;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Applies ROT13 to ASCII/Latin-1 (or UTF-8) bytes on their way to the underlying stream.
+// Callers' arrays are never modified: bulk writes are translated through a fixed-size scratch buffer instead.
+public class ROT13OutputStream extends FilterOutputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    public ROT13OutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(ROT13List.rot13((byte) b));
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int count = Math.min(len, buffer.length);
+            System.arraycopy(b, off, buffer, 0, count);
+            ROT13List.translate(buffer, 0, count);
+            out.write(buffer, 0, count);
+            off += count;
+            len -= count;
+        }
+    }
+
+}
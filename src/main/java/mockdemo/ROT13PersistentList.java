@@ -0,0 +1,677 @@
+package mockdemo;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+// A durable List<String>, meant as the delegate of a ROT13List so that the encoded elements outlive the process:
+// new ROT13List(new ROT13PersistentList(dir, "names")).
+// Element bytes go into an append-only log file (one byte per char if it fits in Latin-1, otherwise two), and a
+// memory-mapped index file holds each element's log offset and length in list order. Opening an existing list
+// just maps the index and reads its list of tombstones - nothing else is read or deserialised until get() asks
+// for it.
+// set() appends the new value and repoints the index entry; remove() leaves a tombstone in the index rather than
+// shifting it. The space these leave behind is reclaimed by compact(), which copies the live records into a new
+// log and writes a fresh index; given an executor, that happens by itself in the background once the garbage
+// outweighs the live data. The index names the log it belongs to, and is swapped in with an atomic rename, so a
+// crash mid-compaction leaves the old files intact.
+// Writes reach the disk when the OS gets round to it, or on force() and close(). A background compaction which
+// fails leaves the list as it was, and the failure is thrown from the next call on the list (or from close()).
+// Thread-safe, but every method holds the list's lock; only the record copying of a compaction runs outside it.
+public class ROT13PersistentList extends AbstractList<String> implements RandomAccess, Closeable {
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1 << 20;
+
+    // index file header: magic, entry count (tombstones included), tombstone count, log generation, live bytes.
+    // After it come capacity entries, then room for capacity tombstone entry numbers (ints, sorted).
+    private static final int MAGIC = 0x5231334d;
+    private static final int COUNT = 4;
+    private static final int TOMBSTONES = 8;
+    private static final int LOG_GENERATION = 12;
+    private static final int LIVE_BYTES = 16;
+    private static final int HEADER_SIZE = 24;
+
+    // each entry: log offset (long), then char count << 1 with this bit set for two-byte chars, or one of the
+    // negative markers below
+    private static final int ENTRY_SIZE = 12;
+    private static final int UTF16 = 1;
+    private static final int NULL_ELEMENT = -1;
+    private static final int TOMBSTONE = -2;
+    private static final int TOMBSTONE_SIZE = 4;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // the index is a single mapping, so it can't go past 2GB
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / (ENTRY_SIZE + TOMBSTONE_SIZE);
+
+    private final File directory;
+    private final String name;
+    private final Executor compactor;
+    private final long compactionThreshold;
+
+    private RandomAccessFile indexFile;
+    private MappedByteBuffer indexMap;
+    private int capacity;
+    private int count;
+
+    // sorted entry numbers of the tombstones, kept in step with the copy after the index entries
+    private int[] tombstones;
+    private int tombstoneCount;
+
+    private RandomAccessFile logFile;
+    private FileChannel log;
+    private int logGeneration;
+    private long logLength;
+    private long liveBytes;
+
+    // bumped by every change other than an append, so a compaction can tell whether its copy is still good
+    private int generation;
+    private boolean compacting;
+    private IOException compactionFailure;
+
+    public ROT13PersistentList(File directory, String name) throws IOException {
+        this(directory, name, null, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    // with a non-null compactor, compact() is run on it whenever there are more than compactionThreshold bytes of
+    // garbage in the log and they outweigh the live data
+    public ROT13PersistentList(File directory, String name, Executor compactor, long compactionThreshold)
+            throws IOException {
+        this.directory = directory;
+        this.name = name;
+        this.compactor = compactor;
+        this.compactionThreshold = compactionThreshold;
+        File file = indexFile();
+        if (file.length() >= HEADER_SIZE) {
+            openIndex(file);
+        } else {
+            createIndex(file, INITIAL_CAPACITY, 0);
+        }
+        logFile = new RandomAccessFile(logFile(logGeneration), "rw");
+        log = logFile.getChannel();
+        logLength = log.size();
+    }
+
+    @Override
+    public synchronized String get(int index) {
+        checkCompactionFailure();
+        checkIndex(index, size());
+        int entry = toEntry(index);
+        try {
+            return read(entryOffset(entry), entryLength(entry));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return count - tombstoneCount;
+    }
+
+    @Override
+    public synchronized String set(int index, String element) {
+        checkCompactionFailure();
+        checkIndex(index, size());
+        int entry = toEntry(index);
+        try {
+            String old = read(entryOffset(entry), entryLength(entry));
+            liveBytes -= byteCount(entryLength(entry));
+            int length = lengthOf(element);
+            putEntry(entry, append(element, length), length);
+            generation++;
+            writeHeader();
+            compactIfWasteful();
+            return old;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void add(int index, String element) {
+        checkCompactionFailure();
+        checkIndex(index, size() + 1);
+        try {
+            int length = lengthOf(element);
+            long offset = append(element, length);
+            if (count == capacity) {
+                grow();
+            }
+            int entry = index == size() ? count : toEntry(index);
+            if (entry < count) {
+                // an insert rather than an append - shift the later entries (and tombstones) along one, within
+                // the mapping
+                ByteBuffer tail = indexMap.duplicate();
+                tail.limit(entryPosition(count));
+                tail.position(entryPosition(entry));
+                ByteBuffer shifted = indexMap.duplicate();
+                shifted.position(entryPosition(entry + 1));
+                shifted.put(tail);
+                int firstShifted = tombstoneCount;
+                for (int i = tombstoneCount - 1; i >= 0 && tombstones[i] >= entry; i--) {
+                    tombstones[i]++;
+                    firstShifted = i;
+                }
+                putTombstones(firstShifted);
+                generation++;
+            }
+            putEntry(entry, offset, length);
+            count++;
+            writeHeader();
+            modCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized String remove(int index) {
+        checkCompactionFailure();
+        checkIndex(index, size());
+        int entry = toEntry(index);
+        try {
+            String old = read(entryOffset(entry), entryLength(entry));
+            liveBytes -= byteCount(entryLength(entry));
+            putEntry(entry, 0, TOMBSTONE);
+            if (tombstones == null || tombstoneCount == tombstones.length) {
+                tombstones = Arrays.copyOf(tombstones == null ? new int[0] : tombstones,
+                        Math.max(16, tombstoneCount * 2));
+            }
+            int at = -Arrays.binarySearch(tombstones, 0, tombstoneCount, entry) - 1;
+            System.arraycopy(tombstones, at, tombstones, at + 1, tombstoneCount - at);
+            tombstones[at] = entry;
+            tombstoneCount++;
+            putTombstones(at);
+            generation++;
+            writeHeader();
+            modCount++;
+            compactIfWasteful();
+            return old;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        checkCompactionFailure();
+        count = 0;
+        tombstoneCount = 0;
+        liveBytes = 0;
+        generation++;
+        writeHeader();
+        modCount++;
+        // nothing's live, so unless a compaction is still copying from it the whole log can go
+        if (!compacting) {
+            try {
+                log.truncate(0);
+                logLength = 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public synchronized long getLogBytes() {
+        return logLength;
+    }
+
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    // flushes the log, then the index, to the disk
+    public synchronized void force() throws IOException {
+        throwCompactionFailure();
+        log.force(false);
+        indexMap.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            log.force(false);
+            indexMap.force();
+        } finally {
+            try {
+                logFile.close();
+            } finally {
+                indexFile.close();
+            }
+        }
+        throwCompactionFailure();
+    }
+
+    // rewrites the log with only the live records, and the index without tombstones. The records are copied
+    // outside the lock; appends made meanwhile are copied over at the end, but any other change means starting
+    // again with the lock held throughout. Does nothing if a compaction is already running.
+    public void compact() throws IOException {
+        synchronized (this) {
+            throwCompactionFailure();
+            if (compacting) {
+                return;
+            }
+            compacting = true;
+        }
+        runCompaction();
+    }
+
+    // the caller must have set compacting
+    private void runCompaction() throws IOException {
+        try {
+            doCompact();
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private void doCompact() throws IOException {
+        int snapshotGeneration;
+        int snapshotCount;
+        long[] offsets;
+        int[] lengths;
+        FileChannel oldLog;
+        int newGeneration;
+        synchronized (this) {
+            snapshotGeneration = generation;
+            snapshotCount = count;
+            offsets = new long[count];
+            lengths = new int[count];
+            readEntries(offsets, lengths, 0, count);
+            oldLog = log;
+            newGeneration = logGeneration + 1;
+        }
+        File newLogFile = logFile(newGeneration);
+        RandomAccessFile newLog = new RandomAccessFile(newLogFile, "rw");
+        boolean swapped = false;
+        try {
+            newLog.setLength(0);
+            FileChannel to = newLog.getChannel();
+            long newLength = copyRecords(oldLog, to, offsets, lengths, 0, snapshotCount, 0);
+            synchronized (this) {
+                if (generation != snapshotGeneration) {
+                    offsets = new long[count];
+                    lengths = new int[count];
+                    readEntries(offsets, lengths, 0, count);
+                    newLength = copyRecords(log, to, offsets, lengths, 0, count, 0);
+                } else if (count > snapshotCount) {
+                    offsets = Arrays.copyOf(offsets, count);
+                    lengths = Arrays.copyOf(lengths, count);
+                    readEntries(offsets, lengths, snapshotCount, count);
+                    newLength = copyRecords(log, to, offsets, lengths, snapshotCount, count, newLength);
+                }
+                to.truncate(newLength);
+                to.force(false);
+                swap(newGeneration, newLog, newLength, offsets, lengths, count);
+                swapped = true;
+            }
+        } finally {
+            if (!swapped) {
+                newLog.close();
+                newLogFile.delete();
+            }
+        }
+    }
+
+    // must hold the lock; writes the new index beside the old and renames it into place, then drops the old log.
+    // Nothing about the list changes until the rename has succeeded, so a failure before then leaves it as it was.
+    private void swap(int newGeneration, RandomAccessFile newLog, long newLength, long[] offsets, int[] lengths,
+                      int n) throws IOException {
+        int live = 0;
+        for (int i = 0; i < n; i++) {
+            if (lengths[i] != TOMBSTONE) {
+                live++;
+            }
+        }
+        File file = indexFile();
+        File tmp = new File(directory, name + ".idx.tmp");
+        tmp.delete();
+        int newCapacity = (int) Math.min(Math.max(INITIAL_CAPACITY, live * 2L), MAX_CAPACITY);
+        RandomAccessFile newIndexFile = new RandomAccessFile(tmp, "rw");
+        MappedByteBuffer newIndex;
+        boolean renamed = false;
+        try {
+            newIndex = map(newIndexFile, newCapacity);
+            newIndex.putInt(0, MAGIC);
+            newIndex.putInt(LOG_GENERATION, newGeneration);
+            int entry = 0;
+            for (int i = 0; i < n; i++) {
+                if (lengths[i] != TOMBSTONE) {
+                    putEntry(newIndex, entry++, offsets[i], lengths[i]);
+                }
+            }
+            writeHeader(newIndex, live, 0, newLength);
+            newIndex.force();
+            moveIndex(tmp, file);
+            renamed = true;
+        } finally {
+            if (!renamed) {
+                newIndexFile.close();
+                tmp.delete();
+            }
+        }
+
+        RandomAccessFile oldIndexFile = indexFile;
+        RandomAccessFile oldLogFile = logFile;
+        int oldLogGeneration = logGeneration;
+        indexFile = newIndexFile;
+        indexMap = newIndex;
+        capacity = newCapacity;
+        logGeneration = newGeneration;
+        count = live;
+        tombstoneCount = 0;
+        liveBytes = newLength;
+        logFile = newLog;
+        log = newLog.getChannel();
+        logLength = newLength;
+        generation++;
+        // the new files are in use now, so failing to tidy up the old ones is no reason to fail the compaction
+        closeQuietly(oldIndexFile);
+        closeQuietly(oldLogFile);
+        logFile(oldLogGeneration).delete();
+    }
+
+    // the commit point of a compaction; overridden by tests to make it fail
+    void moveIndex(File from, File to) throws IOException {
+        Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            // nothing more to do
+        }
+    }
+
+    private void compactIfWasteful() {
+        long garbage = logLength - liveBytes;
+        if (compactor == null || compacting || garbage <= compactionThreshold || garbage <= liveBytes) {
+            return;
+        }
+        // set now rather than when the task starts, so it's only queued once
+        compacting = true;
+        try {
+            compactor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        runCompaction();
+                    } catch (IOException e) {
+                        synchronized (ROT13PersistentList.this) {
+                            compactionFailure = e;
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            compacting = false;
+        }
+    }
+
+    // a failed background compaction is reported once, by whichever call comes next
+    private void throwCompactionFailure() throws IOException {
+        IOException e = compactionFailure;
+        if (e != null) {
+            compactionFailure = null;
+            throw new IOException("background compaction failed", e);
+        }
+    }
+
+    private void checkCompactionFailure() {
+        try {
+            throwCompactionFailure();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private File indexFile() {
+        return new File(directory, name + ".idx");
+    }
+
+    private File logFile(int generation) {
+        return new File(directory, name + "." + generation + ".log");
+    }
+
+    private void openIndex(File file) throws IOException {
+        indexFile = new RandomAccessFile(file, "rw");
+        capacity = (int) Math.min((indexFile.length() - HEADER_SIZE) / (ENTRY_SIZE + TOMBSTONE_SIZE), MAX_CAPACITY);
+        mapIndex();
+        if (indexMap.getInt(0) != MAGIC) {
+            indexFile.close();
+            throw new IOException("not a ROT13PersistentList index: " + file);
+        }
+        count = indexMap.getInt(COUNT);
+        tombstoneCount = indexMap.getInt(TOMBSTONES);
+        logGeneration = indexMap.getInt(LOG_GENERATION);
+        liveBytes = indexMap.getLong(LIVE_BYTES);
+        if (tombstoneCount > 0) {
+            tombstones = new int[tombstoneCount];
+            ByteBuffer section = indexMap.duplicate();
+            section.position(tombstonePosition(0));
+            IntBuffer ints = section.asIntBuffer();
+            ints.get(tombstones);
+        }
+    }
+
+    private void createIndex(File file, int initialCapacity, int newLogGeneration) throws IOException {
+        indexFile = new RandomAccessFile(file, "rw");
+        capacity = initialCapacity;
+        mapIndex();
+        indexMap.putInt(0, MAGIC);
+        logGeneration = newLogGeneration;
+        indexMap.putInt(LOG_GENERATION, logGeneration);
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        writeHeader(indexMap, count, tombstoneCount, liveBytes);
+    }
+
+    private static void writeHeader(ByteBuffer index, int count, int tombstoneCount, long liveBytes) {
+        index.putInt(COUNT, count);
+        index.putInt(TOMBSTONES, tombstoneCount);
+        index.putLong(LIVE_BYTES, liveBytes);
+    }
+
+    private void mapIndex() throws IOException {
+        indexMap = map(indexFile, capacity);
+    }
+
+    private static MappedByteBuffer map(RandomAccessFile file, int capacity) throws IOException {
+        long size = HEADER_SIZE + (long) capacity * (ENTRY_SIZE + TOMBSTONE_SIZE);
+        return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    // the tombstones section starts after the entries, so it moves along as well
+    private void grow() throws IOException {
+        if (capacity == MAX_CAPACITY) {
+            throw new IOException("index full: " + capacity + " entries");
+        }
+        capacity = (int) Math.min((long) capacity * 2, MAX_CAPACITY);
+        mapIndex();
+        putTombstones(0);
+    }
+
+    // the index entry holding list element index: the tombstone at tombstones[k] has tombstones[k] - k live
+    // entries before it, which never decreases with k, so binary search for how many tombstones to step over
+    private int toEntry(int index) {
+        int low = 0;
+        int high = tombstoneCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tombstones[mid] - mid <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return index + low;
+    }
+
+    // computed as a long, as entry numbers near capacity would overflow an int; the mapping (and so
+    // MAX_CAPACITY) keeps the result within one
+    private static int entryPosition(int entry) {
+        return Math.toIntExact(HEADER_SIZE + (long) entry * ENTRY_SIZE);
+    }
+
+    private long entryOffset(int entry) {
+        return indexMap.getLong(entryPosition(entry));
+    }
+
+    private int entryLength(int entry) {
+        return indexMap.getInt(entryPosition(entry) + 8);
+    }
+
+    private void putEntry(int entry, long offset, int length) {
+        putEntry(indexMap, entry, offset, length);
+    }
+
+    private static void putEntry(ByteBuffer index, int entry, long offset, int length) {
+        int position = entryPosition(entry);
+        index.putLong(position, offset);
+        index.putInt(position + 8, length);
+    }
+
+    private int tombstonePosition(int k) {
+        return Math.toIntExact(HEADER_SIZE + (long) capacity * ENTRY_SIZE + (long) k * TOMBSTONE_SIZE);
+    }
+
+    // copies tombstones[from, tombstoneCount) into the index
+    private void putTombstones(int from) {
+        for (int k = from; k < tombstoneCount; k++) {
+            indexMap.putInt(tombstonePosition(k), tombstones[k]);
+        }
+    }
+
+    private void readEntries(long[] offsets, int[] lengths, int from, int to) {
+        for (int entry = from; entry < to; entry++) {
+            offsets[entry] = entryOffset(entry);
+            lengths[entry] = entryLength(entry);
+        }
+    }
+
+    // copies records [from, to) to the end of the new log, repointing offsets[] at their new homes
+    private static long copyRecords(FileChannel from, FileChannel to, long[] offsets, int[] lengths, int start, int end,
+                                    long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        for (int i = start; i < end; i++) {
+            int bytes = byteCount(lengths[i]);
+            if (bytes == 0) {
+                continue;
+            }
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2));
+            }
+            buffer.clear();
+            buffer.limit(bytes);
+            readFully(from, buffer, offsets[i]);
+            buffer.flip();
+            writeFully(to, buffer, position);
+            offsets[i] = position;
+            position += bytes;
+        }
+        return position;
+    }
+
+    private long append(String s, int length) throws IOException {
+        int bytes = byteCount(length);
+        if (bytes == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        if ((length & UTF16) != 0) {
+            for (int i = 0; i < s.length(); i++) {
+                buffer.putChar(s.charAt(i));
+            }
+        } else {
+            for (int i = 0; i < s.length(); i++) {
+                buffer.put((byte) s.charAt(i));
+            }
+        }
+        buffer.flip();
+        long offset = logLength;
+        writeFully(log, buffer, offset);
+        logLength += bytes;
+        liveBytes += bytes;
+        return offset;
+    }
+
+    private String read(long offset, int length) throws IOException {
+        if (length == NULL_ELEMENT) {
+            return null;
+        }
+        int bytes = byteCount(length);
+        if (bytes == 0) {
+            return "";
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        readFully(log, buffer, offset);
+        if ((length & UTF16) != 0) {
+            buffer.flip();
+            char[] chars = new char[bytes / 2];
+            buffer.asCharBuffer().get(chars);
+            return new String(chars);
+        }
+        return new String(buffer.array(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException("log ends before the record at " + position);
+            }
+            position += n;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static int lengthOf(String s) {
+        if (s == null) {
+            return NULL_ELEMENT;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xff) {
+                return s.length() << 1 | UTF16;
+            }
+        }
+        return s.length() << 1;
+    }
+
+    private static int byteCount(int length) {
+        if (length < 0) {
+            return 0;
+        }
+        return (length & UTF16) != 0 ? length & ~UTF16 : length >>> 1;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+}
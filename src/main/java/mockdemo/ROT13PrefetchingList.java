@@ -0,0 +1,208 @@
+package mockdemo;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+// A read-ahead ROT13List for slow delegates walked in order with get(i), get(i + 1), ...
+// Once two gets in a row are sequential, the next window of elements is fetched and decoded on the given
+// executor, and the window after that is started as soon as the walk moves into one - so a steady reader finds
+// its elements already waiting. A reader never waits on a fetch: an element that hasn't arrived yet (or whose
+// window the executor wouldn't take) is read from the delegate directly, and the window then skips it, so no
+// element is fetched twice. Random access goes to the delegate too.
+// Every delegate call, the background ones included, is made holding one lock, so the delegate needn't be
+// thread-safe; writes through this list discard any windows fetched or being fetched. The list itself is meant
+// for one thread at a time, like ROT13List.
+public class ROT13PrefetchingList extends AbstractList<String> {
+    private final List<String> delegate;
+    private final int windowSize;
+    private final Executor executor;
+
+    private final Object lock = new Object();
+    // bumped under the lock by every write, so background fetches can tell they've gone stale
+    private volatile int generation;
+
+    private Window current;
+    private Window next;
+    // read by windows, so they don't fetch what the reader has already passed
+    private volatile int lastIndex = -2;
+    private long prefetchedReads;
+
+    public ROT13PrefetchingList(List<String> delegate, int windowSize, Executor executor) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("window size must be positive: " + windowSize);
+        }
+        this.delegate = delegate;
+        this.windowSize = windowSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public String get(int index) {
+        boolean sequential = index == lastIndex + 1;
+        lastIndex = index;
+        if (sequential) {
+            readAhead(index);
+        }
+        // take the element if the window has got that far, but never wait for it - go to the delegate instead
+        Window window = current;
+        if (window != null && window.has(index)) {
+            prefetchedReads++;
+            return window.decoded[index - window.from];
+        }
+        String encoded;
+        synchronized (lock) {
+            // the window may have fetched it while we waited for the lock; if it hasn't, it won't now
+            if (window != null && window.has(index)) {
+                prefetchedReads++;
+                return window.decoded[index - window.from];
+            }
+            encoded = delegate.get(index);
+        }
+        return ROT13List.rot13(encoded);
+    }
+
+    @Override
+    public int size() {
+        synchronized (lock) {
+            return delegate.size();
+        }
+    }
+
+    @Override
+    public String set(int index, String element) {
+        String encoded = ROT13List.rot13(element);
+        String old;
+        synchronized (lock) {
+            generation++;
+            old = delegate.set(index, encoded);
+        }
+        discardWindows();
+        return ROT13List.rot13(old);
+    }
+
+    @Override
+    public void add(int index, String element) {
+        String encoded = ROT13List.rot13(element);
+        synchronized (lock) {
+            generation++;
+            delegate.add(index, encoded);
+        }
+        discardWindows();
+        modCount++;
+    }
+
+    @Override
+    public String remove(int index) {
+        String old;
+        synchronized (lock) {
+            generation++;
+            old = delegate.remove(index);
+        }
+        discardWindows();
+        modCount++;
+        return ROT13List.rot13(old);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            generation++;
+            delegate.clear();
+        }
+        discardWindows();
+        modCount++;
+    }
+
+    // how many get()s were answered from a prefetched window
+    public long getPrefetchedReads() {
+        return prefetchedReads;
+    }
+
+    // make sure the window holding the element after index is under way, and the one after that once we're in it
+    private void readAhead(int index) {
+        if (current == null || !current.contains(index)) {
+            if (next != null && next.contains(index)) {
+                abandon(current);
+                current = next;
+            } else {
+                discardWindows();
+                current = fetch(index + 1);
+            }
+            next = null;
+        }
+        if (next == null && current != null) {
+            next = fetch(current.from + windowSize);
+        }
+    }
+
+    // null if the executor won't take it, in which case reads just go to the delegate
+    private Window fetch(int from) {
+        Window window = new Window(from, generation);
+        try {
+            executor.execute(window);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        return window;
+    }
+
+    private void discardWindows() {
+        abandon(current);
+        abandon(next);
+        current = null;
+        next = null;
+    }
+
+    private static void abandon(Window window) {
+        if (window != null) {
+            window.abandoned = true;
+        }
+    }
+
+    // up to windowSize elements from the given index. They're published one at a time, by bumping fetched after
+    // each is decoded, so a reader can take the first elements while the rest are still coming; the window ends
+    // early at the end of the list, which is looked for here rather than on the reader's thread. Elements the
+    // reader has already got to are skipped, and stay not ready.
+    private class Window implements Runnable {
+        final int from;
+        final int fetchGeneration;
+        final String[] decoded = new String[windowSize];
+        final boolean[] ready = new boolean[windowSize];
+        volatile int fetched;
+        volatile boolean abandoned;
+
+        Window(int from, int fetchGeneration) {
+            this.from = from;
+            this.fetchGeneration = fetchGeneration;
+        }
+
+        boolean contains(int index) {
+            return index >= from && index < from + windowSize;
+        }
+
+        boolean has(int index) {
+            return contains(index) && index - from < fetched && ready[index - from];
+        }
+
+        // runs on the executor; gives up as soon as a write has happened since it was scheduled, or the reader has
+        // moved on
+        @Override
+        public void run() {
+            for (int i = 0; i < decoded.length && !abandoned; i++) {
+                // decoded under the lock too, so a reader holding it knows whether this element is coming or not
+                synchronized (lock) {
+                    i = Math.max(i, lastIndex + 1 - from);
+                    if (i >= decoded.length || generation != fetchGeneration || from + i >= delegate.size()) {
+                        return;
+                    }
+                    decoded[i] = ROT13List.rot13(delegate.get(from + i));
+                    ready[i] = true;
+                    fetched = i + 1;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package mockdemo;
+
+import java.util.concurrent.Executor;
+
+// A reactive ROT13 stage: subscribe it to a Flow.Publisher<String> and it publishes each String ROT13-translated,
+// honouring its subscriber's demand. See ROT13FlowStage for how batching and the executor work.
+public class ROT13Processor extends ROT13FlowStage<String> {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    public ROT13Processor() {
+        this(DEFAULT_BATCH_SIZE, null);
+    }
+
+    // with a null executor, items are translated and delivered on the signalling thread
+    public ROT13Processor(int batchSize, Executor executor) {
+        super(batchSize, executor);
+    }
+
+    @Override
+    String translate(String item) {
+        return ROT13List.rot13(item);
+    }
+
+}
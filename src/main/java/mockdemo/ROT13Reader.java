@@ -0,0 +1,29 @@
+package mockdemo;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+// Decodes (or encodes - it's the same thing) ROT13 text as it is read from the underlying Reader.
+public class ROT13Reader extends FilterReader {
+
+    public ROT13Reader(Reader in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        return c < 0 ? c : ROT13List.rot13((char) c);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int count = super.read(cbuf, off, len);
+        if (count > 0) {
+            ROT13List.translate(cbuf, off, off + count);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,298 @@
+package mockdemo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// A small ROT13 transcoding server: every byte a client sends comes straight back ROT13-translated (ASCII/Latin-1
+// or UTF-8 text). Each connection gets one direct buffer for its lifetime; bytes are read into it, translated in
+// place and written back out of it, so they're never copied onto the heap.
+// In SELECTOR mode one thread serves every connection from an NIO Selector, and stops reading from a client
+// while its translated bytes can't be written (so a slow reader can't make the server buffer without limit).
+// THREADS mode is blocking I/O with a thread per connection, and VIRTUAL_THREADS the same on virtual threads -
+// only available when running on Java 21 or later, as this is built for older ones.
+// Usage: java mockdemo.ROT13Server [port] [selector|threads|virtual] [buffer size in KB]
+public class ROT13Server implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 << 10;
+
+    public enum Mode {
+        SELECTOR, THREADS, VIRTUAL_THREADS
+    }
+
+    private final Mode mode;
+    private final int bufferSize;
+    private ServerSocketChannel server;
+    private Thread acceptor;
+    private Selector selector;
+    private ExecutorService workers;
+    private volatile boolean closed;
+
+    public ROT13Server(Mode mode, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be positive: " + bufferSize);
+        }
+        this.mode = mode;
+        this.bufferSize = bufferSize;
+    }
+
+    // binds (port 0 picks a free port) and starts serving in the background; returns the address bound to
+    public InetSocketAddress start(InetSocketAddress address) throws IOException {
+        if (mode == Mode.VIRTUAL_THREADS) {
+            workers = newVirtualThreadPerTaskExecutor();
+        } else if (mode == Mode.THREADS) {
+            workers = Executors.newCachedThreadPool();
+        }
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        Runnable loop;
+        if (mode == Mode.SELECTOR) {
+            selector = Selector.open();
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            loop = new Runnable() {
+                @Override
+                public void run() {
+                    selectLoop();
+                }
+            };
+        } else {
+            loop = new Runnable() {
+                @Override
+                public void run() {
+                    acceptLoop();
+                }
+            };
+        }
+        acceptor = new Thread(loop, "ROT13Server-" + mode.name().toLowerCase());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (server != null) {
+            server.close();
+        }
+        if (acceptor != null) {
+            try {
+                acceptor.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+            try {
+                workers.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // virtual threads arrived in Java 21, after the release this is compiled for, so they're looked up reflectively
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("virtual threads need Java 21 or later");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void selectLoop() {
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            ((Connection) key.attachment()).ready(key);
+                        }
+                    } catch (IOException e) {
+                        // one client's failure mustn't take the loop down with it
+                        key.cancel();
+                        try {
+                            key.channel().close();
+                        } catch (IOException closing) {
+                            // cancelled anyway
+                        }
+                    }
+                }
+            }
+        } catch (ClosedChannelException e) {
+            // closed under us
+        } catch (IOException e) {
+            if (!closed) {
+                throw new IllegalStateException(e);
+            }
+        } finally {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            } catch (IOException e) {
+                // shutting down anyway
+            }
+        }
+    }
+
+    // a failure here (out of file descriptors, a client which reset straight away) is that one client's problem:
+    // it's dropped, and the server's own key stays registered
+    private void accept() {
+        SocketChannel client = null;
+        try {
+            client = server.accept();
+            if (client == null) {
+                return;
+            }
+            client.configureBlocking(false);
+            configure(client);
+            client.register(selector, SelectionKey.OP_READ, new Connection(client));
+        } catch (IOException e) {
+            closeQuietly(client);
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            SocketChannel accepted = null;
+            try {
+                accepted = server.accept();
+                configure(accepted);
+            } catch (ClosedChannelException e) {
+                // closed under us
+                return;
+            } catch (IOException e) {
+                // as in accept(), only this client is dropped
+                closeQuietly(accepted);
+                continue;
+            }
+            final SocketChannel client = accepted;
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    serve(client);
+                }
+            });
+        }
+    }
+
+    // overridden by tests to make accepting a client fail
+    void configure(SocketChannel client) throws IOException {
+        client.socket().setTcpNoDelay(true);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing more to do
+            }
+        }
+    }
+
+    // blocking: translate whatever arrives and write it all back before reading more
+    private void serve(SocketChannel client) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        try {
+            while (client.read(buffer) >= 0) {
+                buffer.flip();
+                ROT13Buffers.rot13(buffer);
+                while (buffer.hasRemaining()) {
+                    client.write(buffer);
+                }
+                buffer.clear();
+            }
+            client.shutdownOutput();
+        } catch (IOException e) {
+            // client went away
+        } finally {
+            closeQuietly(client);
+        }
+    }
+
+    // the selector-mode state of one client: its buffer holds translated bytes not yet written back
+    private class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        private boolean endOfInput;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void ready(SelectionKey key) throws IOException {
+            if (key.isReadable()) {
+                int start = buffer.position();
+                int n = channel.read(buffer);
+                if (n < 0) {
+                    endOfInput = true;
+                } else if (n > 0) {
+                    ByteBuffer read = buffer.duplicate();
+                    read.flip();
+                    read.position(start);
+                    ROT13Buffers.rot13(read);
+                }
+            }
+            buffer.flip();
+            channel.write(buffer);
+            buffer.compact();
+
+            boolean pending = buffer.position() > 0;
+            if (endOfInput && !pending) {
+                channel.shutdownOutput();
+                key.cancel();
+                channel.close();
+                return;
+            }
+            int ops = 0;
+            if (!endOfInput && buffer.hasRemaining()) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (pending) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 1313;
+        Mode mode = Mode.SELECTOR;
+        if (args.length > 1) {
+            mode = args[1].equals("virtual") ? Mode.VIRTUAL_THREADS : Mode.valueOf(args[1].toUpperCase());
+        }
+        int bufferSize = args.length > 2 ? Integer.parseInt(args[2]) << 10 : DEFAULT_BUFFER_SIZE;
+        ROT13Server server = new ROT13Server(mode, bufferSize);
+        System.out.println("ROT13Server (" + mode + ") listening on " + server.start(new InetSocketAddress(port)));
+        Thread.currentThread().join();
+    }
+
+}
@@ -0,0 +1,72 @@
+package mockdemo;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+// The Set counterpart of ROT13List: elements are kept ROT13-encoded in the delegate set. contains(), add() and
+// remove() encode their argument once and leave the hashing to the delegate, so they're as fast as its own;
+// only iteration decodes.
+public class ROT13Set extends AbstractSet<String> {
+    private final Set<String> delegate;
+
+    public ROT13Set(Set<String> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return (o == null || o instanceof String) && delegate.contains(ROT13List.rot13((String) o));
+    }
+
+    @Override
+    public boolean add(String s) {
+        return delegate.add(ROT13List.rot13(s));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return (o == null || o instanceof String) && delegate.remove(ROT13List.rot13((String) o));
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        final Iterator<String> it = delegate.iterator();
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return ROT13List.rot13(it.next());
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    // ROT13 is a bijection, so equal delegates mean equal sets; AbstractSet's hashCode() agrees with either path
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ROT13Set) {
+            return delegate.equals(((ROT13Set) o).delegate);
+        }
+        return super.equals(o);
+    }
+
+}
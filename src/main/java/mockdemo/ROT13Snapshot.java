@@ -0,0 +1,188 @@
+package mockdemo;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+// An immutable, decoded copy of a ROT13List for lists that are built once and then only read.
+// Every element's chars are packed end to end into one char[], with an offsets array marking where each starts,
+// and a hash table over the elements makes indexOf() and contains() constant time. get() is a single copy out of
+// the packed array - nothing is re-encoded or decoded after the snapshot has been taken.
+public final class ROT13Snapshot extends AbstractList<String> implements RandomAccess {
+    private final char[] chars;
+    private final int[] offsets;
+    private final int[] hashes;
+    private final BitSet nulls;
+
+    // open-addressed table of the first index (+ 1) holding each distinct non-null value
+    private final int[] table;
+    private final int mask;
+
+    ROT13Snapshot(Collection<String> encoded) {
+        Object[] elements = encoded.toArray();
+        int size = elements.length;
+        long total = 0;
+        for (Object element : elements) {
+            if (element != null) {
+                total += ((String) element).length();
+            }
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("too many chars to snapshot: " + total);
+        }
+
+        chars = new char[(int) total];
+        offsets = new int[size + 1];
+        hashes = new int[size];
+        nulls = new BitSet();
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            offsets[i] = offset;
+            String s = (String) elements[i];
+            if (s == null) {
+                nulls.set(i);
+            } else {
+                s.getChars(0, s.length(), chars, offset);
+                offset += s.length();
+            }
+        }
+        offsets[size] = offset;
+        ROT13List.translate(chars, 0, offset);
+
+        table = new int[Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1];
+        mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            if (!nulls.get(i)) {
+                int h = hashOf(i);
+                hashes[i] = h;
+                int position = probe(h, i);
+                if (table[position] == 0) {
+                    table[position] = i + 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= hashes.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + hashes.length);
+        }
+        if (nulls.get(index)) {
+            return null;
+        }
+        return new String(chars, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    @Override
+    public int size() {
+        return hashes.length;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (o == null) {
+            return nulls.nextSetBit(0);
+        }
+        if (!(o instanceof String)) {
+            return -1;
+        }
+        String s = (String) o;
+        int entry = table[probe(s.hashCode(), s)];
+        return entry - 1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (o == null) {
+            return nulls.previousSetBit(hashes.length - 1);
+        }
+        if (!(o instanceof String)) {
+            return -1;
+        }
+        String s = (String) o;
+        int h = s.hashCode();
+        for (int i = hashes.length - 1; i >= 0; i--) {
+            if (hashes[i] == h && !nulls.get(i) && regionEquals(i, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    // the element hashes are already to hand, so List.hashCode() needn't build any Strings
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < hashes.length; i++) {
+            h = 31 * h + hashes[i];
+        }
+        return h;
+    }
+
+    // same as String.hashCode() on the element
+    private int hashOf(int index) {
+        int h = 0;
+        for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+            h = 31 * h + chars[i];
+        }
+        return h;
+    }
+
+    private static int spread(int h) {
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    // the table slot holding an element equal to element index, or the empty slot where it would go
+    private int probe(int h, int index) {
+        for (int position = spread(h) & mask; ; position = (position + 1) & mask) {
+            int entry = table[position];
+            if (entry == 0 || (hashes[entry - 1] == h && regionsEqual(entry - 1, index))) {
+                return position;
+            }
+        }
+    }
+
+    private int probe(int h, String s) {
+        for (int position = spread(h) & mask; ; position = (position + 1) & mask) {
+            int entry = table[position];
+            if (entry == 0 || (hashes[entry - 1] == h && regionEquals(entry - 1, s))) {
+                return position;
+            }
+        }
+    }
+
+    private boolean regionsEqual(int a, int b) {
+        int length = offsets[a + 1] - offsets[a];
+        if (length != offsets[b + 1] - offsets[b]) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[offsets[a] + i] != chars[offsets[b] + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionEquals(int index, String s) {
+        int offset = offsets[index];
+        if (s.length() != offsets[index + 1] - offset) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (chars[offset + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,57 @@
+package mockdemo;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+// Applies ROT13 to text on its way to the underlying Writer.
+// Callers' arrays are never modified: bulk writes are translated through a fixed-size scratch buffer instead.
+public class ROT13Writer extends FilterWriter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    public ROT13Writer(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        super.write(ROT13List.rot13((char) c));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > cbuf.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        synchronized (lock) {
+            while (len > 0) {
+                int count = Math.min(len, buffer.length);
+                System.arraycopy(cbuf, off, buffer, 0, count);
+                ROT13List.translate(buffer, 0, count);
+                out.write(buffer, 0, count);
+                off += count;
+                len -= count;
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > str.length() - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        synchronized (lock) {
+            while (len > 0) {
+                int count = Math.min(len, buffer.length);
+                str.getChars(off, off + count, buffer, 0);
+                ROT13List.translate(buffer, 0, count);
+                out.write(buffer, 0, count);
+                off += count;
+                len -= count;
+            }
+        }
+    }
+
+}
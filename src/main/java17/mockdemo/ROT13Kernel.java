@@ -0,0 +1,54 @@
+package mockdemo;
+
+// Java 17+ replacement for the scalar ROT13Kernel (see src/main/java), packaged under META-INF/versions/17.
+// Runs at least vectorThreshold long go to ROT13VectorKernel if the JVM was started with
+// --add-modules jdk.incubator.vector; everything else takes the same scalar loops as before.
+// The default threshold of 32 is a guess at where the vector kernel's setup stops costing more than it saves,
+// not a measurement; run ROT13KernelBenchmark on the target hardware to find the actual crossover, and set it with
+// -Dmockdemo.rot13.vectorThreshold=<length>.
+final class ROT13Kernel {
+    static final int VECTOR_THRESHOLD = Integer.getInteger("mockdemo.rot13.vectorThreshold", 32);
+
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private ROT13Kernel() {
+    }
+
+    static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    static void translate(char[] chars, int from, int to) {
+        if (VECTORIZED && to - from >= VECTOR_THRESHOLD) {
+            ROT13VectorKernel.translate(chars, from, to);
+        } else {
+            scalar(chars, from, to);
+        }
+    }
+
+    static void translate(byte[] bytes, int from, int to) {
+        if (VECTORIZED && to - from >= VECTOR_THRESHOLD) {
+            ROT13VectorKernel.translate(bytes, from, to);
+        } else {
+            scalar(bytes, from, to);
+        }
+    }
+
+    static void scalar(char[] chars, int from, int to) {
+        char[] table = ROT13List.TABLE;
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (c < table.length) {
+                chars[i] = table[c];
+            }
+        }
+    }
+
+    static void scalar(byte[] bytes, int from, int to) {
+        byte[] table = ROT13List.BYTE_TABLE;
+        for (int i = from; i < to; i++) {
+            bytes[i] = table[bytes[i] & 0xff];
+        }
+    }
+
+}
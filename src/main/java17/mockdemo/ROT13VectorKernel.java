@@ -0,0 +1,49 @@
+package mockdemo;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.GE;
+import static jdk.incubator.vector.VectorOperators.LE;
+
+// ROT13 a whole vector of lanes at a time: fold to lower case, range-compare against a-z and a-m,
+// then add 13 to the first half of the alphabet and subtract 13 from the second.
+// Only ever loaded by ROT13Kernel once it has checked that jdk.incubator.vector is present.
+final class ROT13VectorKernel {
+    private static final VectorSpecies<Short> CHARS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    private ROT13VectorKernel() {
+    }
+
+    static void translate(char[] chars, int from, int to) {
+        int i = from;
+        for (int bound = from + CHARS.loopBound(to - from); i < bound; i += CHARS.length()) {
+            ShortVector v = ShortVector.fromCharArray(CHARS, chars, i);
+            ShortVector lower = v.or((short) 0x20);
+            VectorMask<Short> letters = lower.compare(GE, (short) 'a').and(lower.compare(LE, (short) 'z'));
+            VectorMask<Short> firstHalf = lower.compare(LE, (short) 'm');
+            v.add((short) 13, letters.and(firstHalf))
+                    .sub((short) 13, letters.andNot(firstHalf))
+                    .intoCharArray(chars, i);
+        }
+        ROT13Kernel.scalar(chars, i, to);
+    }
+
+    static void translate(byte[] bytes, int from, int to) {
+        int i = from;
+        for (int bound = from + BYTES.loopBound(to - from); i < bound; i += BYTES.length()) {
+            ByteVector v = ByteVector.fromArray(BYTES, bytes, i);
+            ByteVector lower = v.or((byte) 0x20);
+            VectorMask<Byte> letters = lower.compare(GE, (byte) 'a').and(lower.compare(LE, (byte) 'z'));
+            VectorMask<Byte> firstHalf = lower.compare(LE, (byte) 'm');
+            v.add((byte) 13, letters.and(firstHalf))
+                    .sub((byte) 13, letters.andNot(firstHalf))
+                    .intoArray(bytes, i);
+        }
+        ROT13Kernel.scalar(bytes, i, to);
+    }
+
+}
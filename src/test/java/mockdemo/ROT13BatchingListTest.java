@@ -0,0 +1,201 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+public class ROT13BatchingListTest {
+
+    // stands in for an expensive delegate, counting the calls made on it
+    private static class CountingList extends AbstractList<String> {
+        final ArrayList<String> contents = new ArrayList<String>();
+        int calls;
+
+        @Override
+        public String get(int index) {
+            calls++;
+            return contents.get(index);
+        }
+
+        @Override
+        public int size() {
+            calls++;
+            return contents.size();
+        }
+
+        @Override
+        public String set(int index, String element) {
+            calls++;
+            return contents.set(index, element);
+        }
+
+        @Override
+        public void add(int index, String element) {
+            calls++;
+            contents.add(index, element);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends String> c) {
+            calls++;
+            return contents.addAll(c);
+        }
+
+        @Override
+        public String remove(int index) {
+            calls++;
+            return contents.remove(index);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            calls++;
+            return contents.indexOf(o);
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            calls++;
+            return contents.lastIndexOf(o);
+        }
+
+        @Override
+        public ListIterator<String> listIterator(int index) {
+            calls++;
+            return contents.listIterator(index);
+        }
+    }
+
+    @Test
+    public void appendsAreWrittenInOneBatch() {
+        CountingList delegate = new CountingList();
+        ROT13BatchingList underTest = new ROT13BatchingList(delegate, 4, 60000);
+        delegate.calls = 0;
+
+        underTest.add("one");
+        underTest.add("two");
+        underTest.add("three");
+        Assert.assertEquals(0, delegate.calls);
+        Assert.assertEquals(3, underTest.getPendingCount());
+        Assert.assertEquals(Arrays.asList("one", "two", "three"), underTest);
+        Assert.assertEquals(0, delegate.calls);
+
+        underTest.add("four");
+        Assert.assertEquals(1, delegate.calls);
+        Assert.assertEquals(0, underTest.getPendingCount());
+        Assert.assertEquals(Arrays.asList("bar", "gjb", "guerr", "sbhe"), delegate.contents);
+    }
+
+    @Test
+    public void setsAreCoalescedAndReadsSeeThem() {
+        CountingList delegate = new CountingList();
+        delegate.contents.addAll(Arrays.asList("nyvpr", "obo"));
+        ROT13BatchingList underTest = new ROT13BatchingList(delegate, 100, 60000);
+
+        underTest.set(0, "carol");
+        Assert.assertEquals("carol", underTest.set(0, "dave"));
+        underTest.add("erin");
+        Assert.assertEquals("erin", underTest.set(2, "frank"));
+        Assert.assertEquals(Arrays.asList("dave", "bob", "frank"), underTest);
+        Assert.assertEquals(Arrays.asList("nyvpr", "obo"), delegate.contents);
+
+        delegate.calls = 0;
+        underTest.flush();
+        Assert.assertEquals(2, delegate.calls);
+        Assert.assertEquals(Arrays.asList("qnir", "obo", "senax"), delegate.contents);
+    }
+
+    @Test
+    public void structuralChangesFlushFirst() {
+        CountingList delegate = new CountingList();
+        ROT13BatchingList underTest = new ROT13BatchingList(delegate, 100, 60000);
+        underTest.addAll(Arrays.asList("a", "b", "c"));
+
+        underTest.add(1, "x");
+        Assert.assertEquals(Arrays.asList("n", "k", "o", "p"), delegate.contents);
+        Assert.assertEquals("b", underTest.remove(2));
+        underTest.add("d");
+        Assert.assertEquals(Arrays.asList("a", "x", "c", "d"), underTest);
+        underTest.clear();
+        Assert.assertTrue(underTest.isEmpty());
+        Assert.assertTrue(delegate.contents.isEmpty());
+        Assert.assertEquals(0, underTest.getPendingCount());
+    }
+
+    @Test
+    public void searchesMakeOneDelegateCall() {
+        CountingList delegate = new CountingList();
+        delegate.contents.addAll(Arrays.asList("nyvpr", "obo", "pneby", "obo"));
+        ROT13BatchingList underTest = new ROT13BatchingList(delegate, 100, 60000);
+        underTest.add("dave");
+        underTest.set(2, "erin");
+        delegate.calls = 0;
+
+        Assert.assertEquals(1, underTest.indexOf("bob"));
+        Assert.assertEquals(3, underTest.lastIndexOf("bob"));
+        Assert.assertTrue(underTest.contains("alice"));
+        Assert.assertEquals(3, delegate.calls);
+
+        Assert.assertEquals(4, underTest.indexOf("dave"));
+        Assert.assertEquals(2, underTest.indexOf("erin"));
+        Assert.assertEquals(2, underTest.lastIndexOf("erin"));
+        Assert.assertFalse(underTest.contains("carol"));
+        Assert.assertFalse(underTest.contains(13));
+        Assert.assertEquals(Arrays.asList("nyvpr", "obo", "pneby", "obo"), delegate.contents);
+    }
+
+    @Test
+    public void iteratesWithOneDelegateCall() {
+        CountingList delegate = new CountingList();
+        delegate.contents.addAll(Arrays.asList("nyvpr", "obo", "pneby"));
+        ROT13BatchingList underTest = new ROT13BatchingList(delegate, 100, 60000);
+        underTest.set(1, "bill");
+        underTest.add("dave");
+        delegate.calls = 0;
+
+        List<String> seen = new ArrayList<String>();
+        for (String s : underTest) {
+            seen.add(s);
+        }
+        Assert.assertEquals(Arrays.asList("alice", "bill", "carol", "dave"), seen);
+        Assert.assertEquals(1, delegate.calls);
+
+        Iterator<String> it = underTest.iterator();
+        it.next();
+        underTest.add("erin");
+        try {
+            it.next();
+            Assert.fail("should have thrown exception");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void readsFlushOnceTheDelayHasPassed() throws InterruptedException {
+        CountingList delegate = new CountingList();
+        ROT13BatchingList underTest = new ROT13BatchingList(delegate, 100, 1);
+        underTest.add("abc");
+        Thread.sleep(10);
+        Assert.assertEquals("abc", underTest.get(0));
+        Assert.assertEquals(0, underTest.getPendingCount());
+        Assert.assertEquals(Arrays.asList("nop"), delegate.contents);
+    }
+
+    @Test
+    public void zeroDelayWritesThrough() {
+        List<String> delegate = new ArrayList<String>();
+        ROT13BatchingList underTest = new ROT13BatchingList(delegate, 100, 0);
+        underTest.add("abc");
+        Assert.assertEquals(Arrays.asList("nop"), delegate);
+    }
+
+}
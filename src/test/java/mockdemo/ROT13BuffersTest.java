@@ -0,0 +1,128 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+
+public class ROT13BuffersTest {
+
+    private static final byte[] PLAIN = {'H', 'e', 'l', 'l', 'o', ' ', 'W', 'o', 'r', 'l', 'd', (byte) 0xe9};
+    private static final byte[] ENCODED = {'U', 'r', 'y', 'y', 'b', ' ', 'J', 'b', 'e', 'y', 'q', (byte) 0xe9};
+
+    @Test
+    public void translatesHeapCharBufferInPlace() {
+        CharBuffer buffer = CharBuffer.wrap("xxHello Worldxx".toCharArray());
+        buffer.limit(13);
+        buffer.position(2);
+        ROT13Buffers.rot13(buffer);
+        Assert.assertEquals(2, buffer.position());
+        Assert.assertEquals(13, buffer.limit());
+        Assert.assertEquals("Uryyb Jbeyq", buffer.toString());
+        buffer.clear();
+        Assert.assertEquals("xxUryyb Jbeyqxx", buffer.toString());
+    }
+
+    @Test
+    public void translatesCharBufferToCharBuffer() {
+        CharBuffer src = CharBuffer.wrap("Hello World");
+        CharBuffer dst = ByteBuffer.allocateDirect(64).asCharBuffer();
+        dst.put('>');
+        ROT13Buffers.rot13(src, dst);
+        Assert.assertFalse(src.hasRemaining());
+        Assert.assertEquals(12, dst.position());
+        dst.flip();
+        Assert.assertEquals(">Uryyb Jbeyq", dst.toString());
+    }
+
+    @Test
+    public void translatesDirectByteBufferInPlace() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(PLAIN.length);
+        buffer.put(PLAIN).flip();
+        ROT13Buffers.rot13(buffer);
+        Assert.assertEquals(0, buffer.position());
+        Assert.assertEquals(PLAIN.length, buffer.limit());
+        byte[] result = new byte[PLAIN.length];
+        buffer.get(result);
+        Assert.assertArrayEquals(ENCODED, result);
+    }
+
+    @Test
+    public void translatesByteBufferToByteBuffer() {
+        ByteBuffer src = ByteBuffer.wrap(PLAIN).asReadOnlyBuffer();
+        ByteBuffer dst = ByteBuffer.allocate(PLAIN.length);
+        ROT13Buffers.rot13(src, dst);
+        Assert.assertFalse(src.hasRemaining());
+        Assert.assertFalse(dst.hasRemaining());
+        Assert.assertArrayEquals(ENCODED, dst.array());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(PLAIN.length);
+        dst.flip();
+        ROT13Buffers.rot13(dst, direct);
+        direct.flip();
+        byte[] result = new byte[PLAIN.length];
+        direct.get(result);
+        Assert.assertArrayEquals(PLAIN, result);
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void rejectsTooSmallDestination() {
+        ROT13Buffers.rot13(CharBuffer.wrap("Hello World"), CharBuffer.allocate(5));
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void rejectsReadOnlyBuffer() {
+        ROT13Buffers.rot13(ByteBuffer.wrap(PLAIN).asReadOnlyBuffer());
+    }
+
+    @Test
+    public void packedLongTranslationMatchesTableForEveryByte() {
+        for (int b = 0; b < 256; b++) {
+            for (int shift = 0; shift < 64; shift += 8) {
+                long word = 0x4142617a5b404e6dL ^ ((long) b << shift) ^ ((0x4142617a5b404e6dL >>> shift & 0xff) << shift);
+                long expected = 0;
+                for (int i = 0; i < 64; i += 8) {
+                    expected |= (ROT13List.rot13((byte) (word >>> i)) & 0xffL) << i;
+                }
+                Assert.assertEquals(Long.toHexString(word), expected, ROT13Buffers.rot13(word));
+            }
+        }
+    }
+
+    @Test
+    public void translatesUnalignedDirectByteBuffers() {
+        byte[] plain = new byte[300];
+        for (int i = 0; i < plain.length; i++) {
+            plain[i] = (byte) i;
+        }
+        ByteBuffer src = ByteBuffer.allocateDirect(plain.length);
+        src.put(plain);
+        src.position(3);
+        ByteBuffer dst = ByteBuffer.allocateDirect(plain.length + 2);
+        dst.position(5);
+        ROT13Buffers.rot13(src, dst);
+        for (int i = 3; i < plain.length; i++) {
+            Assert.assertEquals(ROT13List.rot13(plain[i]), dst.get(i + 2));
+        }
+    }
+
+    @Test
+    public void translatesBetweenDirectBuffersOfDifferentByteOrders() {
+        byte[] plain = "Why did the chicken cross the road? Gur puvpxra jnf ebg13.".getBytes();
+        ByteBuffer src = ByteBuffer.allocateDirect(plain.length).order(ByteOrder.BIG_ENDIAN);
+        src.put(plain);
+        src.flip();
+        ByteBuffer dst = ByteBuffer.allocateDirect(plain.length).order(ByteOrder.LITTLE_ENDIAN);
+        ROT13Buffers.rot13(src, dst);
+        dst.flip();
+        for (int i = 0; i < plain.length; i++) {
+            Assert.assertEquals(ROT13List.rot13(plain[i]), dst.get(i));
+        }
+        Assert.assertEquals(ByteOrder.LITTLE_ENDIAN, dst.order());
+    }
+
+}
@@ -0,0 +1,88 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+public class ROT13CodecTest {
+
+    @Test
+    public void translatesAsciiLetters() {
+        Assert.assertEquals("Uryyb Jbeyq", ROT13List.rot13("Hello World"));
+        Assert.assertEquals("NOPQRSTUVWXYZABCDEFGHIJKLM", ROT13List.rot13("ABCDEFGHIJKLMNOPQRSTUVWXYZ"));
+        Assert.assertEquals("nopqrstuvwxyzabcdefghijklm", ROT13List.rot13("abcdefghijklmnopqrstuvwxyz"));
+    }
+
+    @Test
+    public void isItsOwnInverse() {
+        String s = "Magic Squirrel Juice, 42 \u00e9clairs & \u65e5\u672c";
+        Assert.assertEquals(s, ROT13List.rot13(ROT13List.rot13(s)));
+    }
+
+    @Test
+    public void leavesOtherCharsAlone() {
+        Assert.assertEquals("\u00d0\u00e9\u00c9 @[`{ 0123 \u00d1", ROT13List.rot13("\u00d0\u00e9\u00c9 @[`{ 0123 \u00d1"));
+        Assert.assertEquals("12 fdhveeryf \u00e9", ROT13List.rot13("12 squirrels \u00e9"));
+    }
+
+    @Test
+    public void returnsSameInstanceWhenNothingToTranslate() {
+        String s = "12345 !?";
+        Assert.assertSame(s, ROT13List.rot13(s));
+        Assert.assertSame("", ROT13List.rot13(""));
+        Assert.assertNull(ROT13List.rot13(null));
+    }
+
+    @Test
+    public void encodesIntoCallerSuppliedArray() {
+        char[] src = "xxHello Worldxx".toCharArray();
+        char[] dst = new char[14];
+        Arrays.fill(dst, '-');
+        ROT13List.rot13(src, 2, 11, dst, 1);
+        Assert.assertEquals("-Uryyb Jbeyq--", new String(dst));
+    }
+
+    @Test
+    public void encodesOverlappingRegions() {
+        char[] chars = "abcdef".toCharArray();
+        ROT13List.rot13(chars, 0, 4, chars, 2);
+        Assert.assertEquals("abnopq", new String(chars));
+
+        chars = "abcdef".toCharArray();
+        ROT13List.rot13(chars, 2, 4, chars, 0);
+        Assert.assertEquals("pqrsef", new String(chars));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsOutOfBoundsRegion() {
+        ROT13List.rot13(new char[4], 2, 3, new char[10], 0);
+    }
+
+    @Test
+    public void encodesInPlace() {
+        char[] chars = "Hello World".toCharArray();
+        ROT13List.rot13InPlace(chars);
+        Assert.assertEquals("Uryyb Jbeyq", new String(chars));
+        ROT13List.rot13InPlace(chars, 6, 5);
+        Assert.assertEquals("Uryyb World", new String(chars));
+    }
+
+    @Test
+    public void appendsToAppendables() throws IOException {
+        StringBuilder sb = new StringBuilder("> ");
+        ROT13List.rot13("Hello World", sb);
+        Assert.assertEquals("> Uryyb Jbeyq", sb.toString());
+
+        StringWriter writer = new StringWriter();
+        ROT13List.rot13(new StringBuilder("Hello World"), writer);
+        Assert.assertEquals("Uryyb Jbeyq", writer.toString());
+
+        StringBuffer buffer = new StringBuffer();
+        ROT13List.rot13("Hello World", buffer);
+        Assert.assertEquals("Uryyb Jbeyq", buffer.toString());
+    }
+
+}
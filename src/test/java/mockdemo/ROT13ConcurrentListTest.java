@@ -0,0 +1,203 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class ROT13ConcurrentListTest {
+
+    @Test
+    public void behavesLikeAList() {
+        ROT13ConcurrentList underTest = new ROT13ConcurrentList(Arrays.asList("one", "two"));
+        underTest.add(1, "one and a half");
+        underTest.addAll(Arrays.asList("three", null, "two"));
+        underTest.addAll(0, Arrays.asList("zero"));
+
+        Assert.assertEquals(Arrays.asList("zero", "one", "one and a half", "two", "three", null, "two"), underTest);
+        Assert.assertEquals(3, underTest.indexOf("two"));
+        Assert.assertEquals(6, underTest.lastIndexOf("two"));
+        Assert.assertEquals(5, underTest.indexOf(null));
+        Assert.assertFalse(underTest.contains("four"));
+
+        Assert.assertEquals("one", underTest.set(1, "uno"));
+        Assert.assertEquals("zero", underTest.remove(0));
+        Assert.assertTrue(underTest.remove("two"));
+        Assert.assertFalse(underTest.remove((Object) 2));
+        Assert.assertEquals(Arrays.asList("uno", "one and a half", "three", null, "two"), underTest);
+
+        underTest.clear();
+        Assert.assertTrue(underTest.isEmpty());
+    }
+
+    @Test
+    public void iteratesOverSnapshot() {
+        ROT13ConcurrentList underTest = new ROT13ConcurrentList(Arrays.asList("one", "two"));
+        Iterator<String> it = underTest.iterator();
+        underTest.add("three");
+        underTest.remove(0);
+
+        List<String> seen = new ArrayList<String>();
+        while (it.hasNext()) {
+            seen.add(it.next());
+        }
+        Assert.assertEquals(Arrays.asList("one", "two"), seen);
+        try {
+            it.remove();
+            Assert.fail("should have thrown exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void bulkRemovalsWorkOnTheList() {
+        ROT13ConcurrentList underTest = new ROT13ConcurrentList(
+                Arrays.asList("one", "two", "three", null, "four", "two", "five", "six"));
+
+        Assert.assertTrue(underTest.removeAll(Arrays.asList("two", null, 3)));
+        Assert.assertEquals(Arrays.asList("one", "three", "four", "five", "six"), underTest);
+        Assert.assertFalse(underTest.removeAll(Arrays.asList("seven")));
+
+        Assert.assertTrue(underTest.retainAll(Arrays.asList("one", "four", "five", "six")));
+        Assert.assertEquals(Arrays.asList("one", "four", "five", "six"), underTest);
+
+        Assert.assertTrue(underTest.removeIf(new Predicate<String>() {
+            @Override
+            public boolean test(String s) {
+                return s.startsWith("f");
+            }
+        }));
+        Assert.assertEquals(Arrays.asList("one", "six"), underTest);
+
+        underTest.addAll(Arrays.asList("seven", "eight", "nine"));
+        underTest.subList(1, 4).clear();
+        Assert.assertEquals(Arrays.asList("one", "nine"), underTest);
+        Assert.assertEquals(2, underTest.size());
+    }
+
+    @Test
+    public void reordersAndReplacesInPlace() {
+        ROT13ConcurrentList underTest = new ROT13ConcurrentList(Arrays.asList("pear", "apple", "fig"));
+
+        underTest.sort(null);
+        Assert.assertEquals(Arrays.asList("apple", "fig", "pear"), underTest);
+        underTest.sort(Collections.<String>reverseOrder());
+        Assert.assertEquals(Arrays.asList("pear", "fig", "apple"), underTest);
+
+        underTest.replaceAll(new UnaryOperator<String>() {
+            @Override
+            public String apply(String s) {
+                return s.toUpperCase();
+            }
+        });
+        Assert.assertEquals(Arrays.asList("PEAR", "FIG", "APPLE"), underTest);
+        Assert.assertEquals(1, underTest.indexOf("FIG"));
+    }
+
+    // the callbacks can use the list, which would deadlock if they ran under the write lock; a write made meanwhile
+    // makes the operation start over on the new contents
+    @Test
+    public void callbacksRunWithoutTheLock() {
+        final ROT13ConcurrentList underTest = new ROT13ConcurrentList(Arrays.asList("pear", "apple", "fig"));
+        final AtomicInteger calls = new AtomicInteger();
+        underTest.removeIf(new Predicate<String>() {
+            @Override
+            public boolean test(String s) {
+                if (calls.getAndIncrement() == 0) {
+                    underTest.set(2, "plum");
+                }
+                return s.startsWith("p") && underTest.contains("apple");
+            }
+        });
+        Assert.assertEquals(Arrays.asList("apple"), underTest);
+        Assert.assertEquals(6, calls.get());
+
+        underTest.addAll(Arrays.asList("fig", "kiwi"));
+        underTest.replaceAll(new UnaryOperator<String>() {
+            @Override
+            public String apply(String s) {
+                return s + underTest.size();
+            }
+        });
+        Assert.assertEquals(Arrays.asList("apple3", "fig3", "kiwi3"), underTest);
+
+        underTest.sort(new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return underTest.indexOf(b) - underTest.indexOf(a);
+            }
+        });
+        Assert.assertEquals(Arrays.asList("kiwi3", "fig3", "apple3"), underTest);
+    }
+
+    @Test
+    public void structuralChangesInvalidateSubLists() {
+        ROT13ConcurrentList underTest = new ROT13ConcurrentList(Arrays.asList("one", "two", "three"));
+        List<String> sub = underTest.subList(0, 2);
+        underTest.removeIf(new Predicate<String>() {
+            @Override
+            public boolean test(String s) {
+                return s.equals("three");
+            }
+        });
+        try {
+            sub.size();
+            Assert.fail("should have thrown exception");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void readersSeeConsistentElementsWhileWritersWork() throws InterruptedException {
+        final ROT13ConcurrentList underTest = new ROT13ConcurrentList();
+        for (int i = 0; i < 1000; i++) {
+            underTest.add("element " + i);
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            final boolean writer = t < 2;
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 20000; i++) {
+                            if (writer) {
+                                // each writer's own add keeps the list at 1001 or more until its remove, so
+                                // index 1000 is always there - size() - 1 could be stale by the time it's used
+                                underTest.add(0, "element " + i);
+                                underTest.remove(1000);
+                            } else {
+                                String s = underTest.get(i % 900);
+                                if (!s.startsWith("element ")) {
+                                    throw new AssertionError(s);
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        done.await();
+        Assert.assertNull(failure.get());
+        Assert.assertEquals(1000, underTest.size());
+    }
+
+}
@@ -0,0 +1,97 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class ROT13DecodeCacheTest {
+
+    @Test
+    public void repeatedReadsHitTheCache() {
+        ROT13List underTest = ROT13List.builder(new ArrayList<String>(Arrays.asList("Uryyb", "Jbeyq")))
+                .decodeCacheSize(4).build();
+        ROT13DecodeCache cache = underTest.getDecodeCache();
+
+        Assert.assertEquals("Hello", underTest.get(0));
+        Assert.assertSame(underTest.get(0), underTest.get(0));
+        Assert.assertEquals("World", underTest.get(1));
+
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void mutationsInvalidate() {
+        ROT13List underTest = ROT13List.builder(new ArrayList<String>()).decodeCacheSize(4).build();
+        ROT13DecodeCache cache = underTest.getDecodeCache();
+        underTest.add("one");
+        underTest.add("two");
+        underTest.add("three");
+        String one = underTest.get(0);
+        underTest.get(1);
+        underTest.get(2);
+        Assert.assertEquals(3, cache.size());
+
+        Assert.assertSame(one, underTest.set(0, "uno"));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals("uno", underTest.get(0));
+
+        Assert.assertEquals("two", underTest.remove(1));
+        Assert.assertTrue(underTest.remove("three"));
+        Assert.assertFalse(underTest.remove("three"));
+        Assert.assertEquals(1, cache.size());
+
+        underTest.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertTrue(underTest.isEmpty());
+    }
+
+    @Test
+    public void evictsUnreferencedEntriesFirst() {
+        ArrayList<String> delegate = new ArrayList<String>();
+        ROT13List underTest = ROT13List.builder(delegate).decodeCacheSize(3).build();
+        ROT13DecodeCache cache = underTest.getDecodeCache();
+        for (int i = 0; i < 100; i++) {
+            underTest.add("element " + i);
+        }
+        underTest.get(0);
+        underTest.get(1);
+        underTest.get(2);
+        underTest.get(0);
+        underTest.get(3);
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertEquals(3, cache.size());
+        long hits = cache.getHits();
+        underTest.get(0);
+        Assert.assertEquals(hits + 1, cache.getHits());
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals("element " + i, underTest.get(i));
+            }
+        }
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void survivesHeavyChurn() {
+        ROT13DecodeCache cache = new ROT13DecodeCache(7);
+        String[] encoded = new String[50];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = ROT13List.rot13("value " + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            int n = (i * 31 + i / 7) % encoded.length;
+            Assert.assertEquals("value " + n, cache.decode(encoded[n]));
+            if (i % 5 == 0) {
+                cache.invalidate(encoded[(n + 3) % encoded.length]);
+            }
+        }
+        Assert.assertTrue(cache.size() <= 7);
+        Assert.assertNull(cache.decode(null));
+    }
+
+}
@@ -0,0 +1,106 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ROT13FileTranscoderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(13).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void write(File file, byte[] bytes) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] read(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int offset = 0;
+            while (offset < bytes.length) {
+                offset += in.read(bytes, offset, bytes.length - offset);
+            }
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+
+    private static byte[] expected(byte[] plain) {
+        byte[] result = plain.clone();
+        ROT13List.translate(result, 0, result.length);
+        return result;
+    }
+
+    @Test
+    public void transcodesAcrossSeveralWindows() throws IOException {
+        byte[] plain = randomBytes(10007);
+        File source = folder.newFile("source");
+        File target = folder.newFile("target");
+        write(source, plain);
+        write(target, randomBytes(20000));
+
+        ROT13FileTranscoder.Result result = new ROT13FileTranscoder(1000).transcode(source, target);
+
+        Assert.assertEquals(plain.length, result.getBytes());
+        Assert.assertArrayEquals(plain, read(source));
+        Assert.assertArrayEquals(expected(plain), read(target));
+    }
+
+    @Test
+    public void transcodesInPlaceWhenSourceIsTarget() throws IOException {
+        byte[] plain = randomBytes(5003);
+        File file = folder.newFile("file");
+        write(file, plain);
+
+        new ROT13FileTranscoder(4096).transcode(file, file);
+
+        Assert.assertArrayEquals(expected(plain), read(file));
+    }
+
+    @Test
+    public void transcodesInParallel() throws IOException {
+        byte[] plain = randomBytes(100003);
+        File source = folder.newFile("source");
+        File target = folder.newFile("target");
+        write(source, plain);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new ROT13FileTranscoder(30000, new ROT13ForkJoin(pool, 1000)).transcode(source, target);
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertArrayEquals(expected(plain), read(target));
+    }
+
+    @Test
+    public void transcodesEmptyFile() throws IOException {
+        File source = folder.newFile("empty");
+        File target = new File(folder.getRoot(), "empty.rot13");
+
+        Assert.assertEquals(0, new ROT13FileTranscoder().transcode(source, target).getBytes());
+        Assert.assertEquals(0, target.length());
+    }
+
+}
@@ -0,0 +1,98 @@
+package mockdemo;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ROT13ForkJoinTest {
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ROT13ForkJoin parallel = new ROT13ForkJoin(pool, 100);
+
+    @After
+    public void shutDownPool() {
+        pool.shutdown();
+    }
+
+    private static String randomText(int length) {
+        Random random = new Random(13);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) random.nextInt(0x180);
+        }
+        return new String(chars);
+    }
+
+    @Test
+    public void matchesSequentialCodec() {
+        for (int length : new int[]{0, 1, 100, 101, 1000, 12345}) {
+            String s = randomText(length);
+            Assert.assertEquals(ROT13List.rot13(s), parallel.rot13(s));
+        }
+        Assert.assertNull(parallel.rot13((String) null));
+    }
+
+    @Test
+    public void translatesArrays() {
+        String s = randomText(5000);
+        char[] chars = s.toCharArray();
+        parallel.rot13InPlace(chars, 7, 4900);
+        Assert.assertEquals(s.substring(0, 7) + ROT13List.rot13(s.substring(7, 4907)) + s.substring(4907),
+                new String(chars));
+
+        char[] dst = new char[5010];
+        parallel.rot13(s.toCharArray(), 0, 5000, dst, 10);
+        Assert.assertEquals(ROT13List.rot13(s), new String(dst, 10, 5000));
+
+        chars = s.toCharArray();
+        parallel.rot13(chars, 0, 4000, chars, 1000);
+        Assert.assertEquals(s.substring(0, 1000) + ROT13List.rot13(s.substring(0, 4000)), new String(chars));
+    }
+
+    @Test
+    public void translatesBuffers() {
+        String s = randomText(3000);
+        CharBuffer chars = CharBuffer.wrap(s.toCharArray());
+        chars.position(10);
+        parallel.rot13(chars);
+        Assert.assertEquals(10, chars.position());
+        Assert.assertEquals(ROT13List.rot13(s.substring(10)), chars.toString());
+
+        byte[] plain = new byte[4099];
+        new Random(13).nextBytes(plain);
+        ByteBuffer direct = ByteBuffer.allocateDirect(plain.length);
+        direct.put(plain);
+        direct.flip();
+        parallel.rot13(direct);
+        ByteBuffer heap = ByteBuffer.allocate(plain.length + 1);
+        heap.put((byte) 'x');
+        parallel.rot13(direct, heap);
+        Assert.assertFalse(direct.hasRemaining());
+        Assert.assertFalse(heap.hasRemaining());
+        for (int i = 0; i < plain.length; i++) {
+            Assert.assertEquals(plain[i], heap.get(i + 1));
+        }
+    }
+
+    @Test
+    public void translatesBetweenOverlappingViewsOfOneArray() {
+        byte[] plain = new byte[5000];
+        new Random(13).nextBytes(plain);
+        for (int shift : new int[]{-37, 37}) {
+            byte[] array = plain.clone();
+            ByteBuffer src = ByteBuffer.wrap(array, 100, 4000).slice();
+            ByteBuffer dst = ByteBuffer.wrap(array, 100 + shift, 4000).slice();
+            parallel.rot13(src, dst);
+            Assert.assertFalse(src.hasRemaining());
+            Assert.assertFalse(dst.hasRemaining());
+            for (int i = 0; i < 4000; i++) {
+                Assert.assertEquals(ROT13List.rot13(plain[100 + i]), array[100 + shift + i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+public class ROT13IndexTest {
+
+    // a delegate that won't be scanned, so lookups have to come from the index
+    private static class NoScanList extends ArrayList<String> {
+        @Override
+        public int indexOf(Object o) {
+            throw new AssertionError("indexOf(" + o + ")");
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            throw new AssertionError("lastIndexOf(" + o + ")");
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            throw new AssertionError("contains(" + o + ")");
+        }
+    }
+
+    // counts iterations, which is how the index is rebuilt
+    private static class IterationCountingList extends ArrayList<String> {
+        int iterations;
+
+        @Override
+        public Iterator<String> iterator() {
+            iterations++;
+            return super.iterator();
+        }
+    }
+
+    @Test
+    public void lookupsBetweenMidListChangesDontRebuild() {
+        IterationCountingList delegate = new IterationCountingList();
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            delegate.add(ROT13List.rot13("value " + i % 100));
+            expected.add("value " + i % 100);
+        }
+        ROT13List underTest = ROT13List.builder(delegate).indexed(true).build();
+        Assert.assertEquals(1, delegate.iterations);
+
+        for (int i = 0; i < 200; i++) {
+            Assert.assertEquals(expected.remove(i), underTest.remove(i));
+            String probe = "value " + i % 100;
+            Assert.assertEquals(expected.indexOf(probe), underTest.indexOf(probe));
+            Assert.assertEquals(expected.lastIndexOf(probe), underTest.lastIndexOf(probe));
+            Assert.assertEquals(-1, underTest.indexOf("missing"));
+        }
+        Assert.assertEquals(1, delegate.iterations);
+
+        // a run of lookups with no changes in between pays for one rebuild, and is then answered from the index
+        for (int i = 0; i < 100; i++) {
+            String probe = "value " + i;
+            Assert.assertEquals(expected.indexOf(probe), underTest.indexOf(probe));
+        }
+        Assert.assertEquals(2, delegate.iterations);
+    }
+
+    @Test
+    public void looksUpWithoutScanningDelegate() {
+        ROT13List underTest = ROT13List.builder(new NoScanList()).indexed(true).build();
+        underTest.addAll(Arrays.asList("one", "two", "three", "two", null));
+
+        Assert.assertTrue(underTest.isIndexed());
+        Assert.assertTrue(underTest.contains("two"));
+        Assert.assertFalse(underTest.contains("four"));
+        Assert.assertEquals(1, underTest.indexOf("two"));
+        Assert.assertEquals(3, underTest.lastIndexOf("two"));
+        Assert.assertEquals(4, underTest.indexOf(null));
+
+        // a mid-list change would make lookups scan the delegate for a while; a removal from the end keeps it exact
+        Assert.assertTrue(underTest.remove(null));
+        Assert.assertEquals(-1, underTest.indexOf(null));
+        Assert.assertEquals(3, underTest.lastIndexOf("two"));
+        underTest.set(0, "two");
+        Assert.assertEquals(0, underTest.indexOf("two"));
+        Assert.assertEquals(-1, underTest.indexOf("one"));
+    }
+
+    @Test
+    public void indexesExistingContents() {
+        List<String> delegate = new ArrayList<String>(Arrays.asList("bar", "gjb", "bar"));
+        ROT13List underTest = ROT13List.builder(delegate).indexed(true).build();
+        Assert.assertEquals(2, underTest.lastIndexOf("one"));
+        Assert.assertTrue(underTest.contains("two"));
+    }
+
+    @Test
+    public void staysConsistentUnderRandomChurn() {
+        Random random = new Random(13);
+        List<String> expected = new ArrayList<String>();
+        ROT13List underTest = ROT13List.builder(new LinkedList<String>()).decodeCacheSize(8).indexed(true).build();
+        for (int i = 0; i < 5000; i++) {
+            String s = "value " + random.nextInt(40);
+            switch (expected.isEmpty() ? 0 : random.nextInt(9)) {
+                case 0:
+                case 1:
+                    expected.add(s);
+                    underTest.add(s);
+                    break;
+                case 2:
+                    int at = random.nextInt(expected.size() + 1);
+                    expected.add(at, s);
+                    underTest.add(at, s);
+                    break;
+                case 3:
+                    int index = random.nextInt(expected.size());
+                    Assert.assertEquals(expected.set(index, s), underTest.set(index, s));
+                    break;
+                case 4:
+                    Assert.assertEquals(expected.remove(expected.size() - 1), underTest.remove(underTest.size() - 1));
+                    break;
+                case 5:
+                    Assert.assertEquals(expected.remove(s), underTest.remove(s));
+                    break;
+                case 6:
+                    List<String> batch = Arrays.asList(s, "value " + random.nextInt(40));
+                    expected.removeAll(batch);
+                    underTest.removeAll(batch);
+                    break;
+                case 7:
+                    Iterator<String> it = underTest.iterator();
+                    it.next();
+                    it.remove();
+                    expected.remove(0);
+                    break;
+                default:
+                    expected.addAll(0, Arrays.asList(s, s));
+                    underTest.addAll(0, Arrays.asList(s, s));
+            }
+            String probe = "value " + random.nextInt(45);
+            Assert.assertEquals(expected.contains(probe), underTest.contains(probe));
+            Assert.assertEquals(expected.indexOf(probe), underTest.indexOf(probe));
+            Assert.assertEquals(expected.lastIndexOf(probe), underTest.lastIndexOf(probe));
+        }
+        Assert.assertEquals(expected, underTest);
+        underTest.clear();
+        Assert.assertFalse(underTest.contains("value 1"));
+    }
+
+}
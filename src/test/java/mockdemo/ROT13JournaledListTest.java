@@ -0,0 +1,237 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+public class ROT13JournaledListTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ROT13JournaledList open(long snapshotThreshold) throws Exception {
+        return new ROT13JournaledList(folder.getRoot(), "test", snapshotThreshold);
+    }
+
+    @Test
+    public void changesAreReplayedOnLoad() throws Exception {
+        List<String> expected = new ArrayList<String>();
+        ROT13JournaledList journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            ROT13List list = new ROT13List(journaled);
+            list.addAll(Arrays.asList("one", "two", "three", null, "", "\u03b1\u03b2\u03b3"));
+            list.remove(1);
+            list.set(0, "uno");
+            list.add(2, "inserted");
+            expected.addAll(list);
+            Assert.assertEquals("hab", journaled.get(0));
+        } finally {
+            journaled.close();
+        }
+
+        journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            Assert.assertEquals(expected, new ROT13List(journaled));
+            journaled.clear();
+            journaled.add("nsgre pyrne");
+        } finally {
+            journaled.close();
+        }
+
+        journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            Assert.assertEquals(Arrays.asList("after clear"), new ROT13List(journaled));
+        } finally {
+            journaled.close();
+        }
+    }
+
+    @Test
+    public void journalGrowsWithChurnNotSize() throws Exception {
+        ROT13JournaledList journaled = open(Long.MAX_VALUE);
+        try {
+            for (int i = 0; i < 10000; i++) {
+                journaled.add("element number " + i);
+            }
+            journaled.checkpoint();
+            long before = journaled.getJournalBytes();
+            journaled.set(5000, "changed");
+            // 11 bytes of change, framed by a length byte and a checksum
+            Assert.assertTrue(journaled.getJournalBytes() - before <= 16);
+        } finally {
+            journaled.close();
+        }
+        journaled = open(Long.MAX_VALUE);
+        try {
+            Assert.assertEquals(10000, journaled.size());
+            Assert.assertEquals("changed", journaled.get(5000));
+            Assert.assertEquals("element number 9999", journaled.get(9999));
+        } finally {
+            journaled.close();
+        }
+    }
+
+    @Test
+    public void snapshotsAreTakenAsTheJournalGrows() throws Exception {
+        List<String> expected = new ArrayList<String>();
+        ROT13JournaledList journaled = open(1024);
+        try {
+            for (int i = 0; i < 2000; i++) {
+                journaled.add("v" + i);
+                journaled.set(i / 2, "w" + i);
+                expected.add("v" + i);
+                expected.set(i / 2, "w" + i);
+            }
+            File snapshot = new File(folder.getRoot(), "test.snapshot");
+            Assert.assertTrue(snapshot.exists());
+            Assert.assertTrue(journaled.getJournalBytes() <= Math.max(1024, snapshot.length()) + 32);
+        } finally {
+            journaled.close();
+        }
+        journaled = open(1024);
+        try {
+            Assert.assertEquals(expected, journaled);
+        } finally {
+            journaled.close();
+        }
+    }
+
+    @Test
+    public void tornRecordIsIgnored() throws Exception {
+        ROT13JournaledList journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            journaled.add("first");
+            journaled.add("second");
+        } finally {
+            journaled.close();
+        }
+        File journal = new File(folder.getRoot(), "test.journal");
+        RandomAccessFile raf = new RandomAccessFile(journal, "rw");
+        try {
+            raf.setLength(raf.length() - 2);
+        } finally {
+            raf.close();
+        }
+
+        journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            Assert.assertEquals(Arrays.asList("first"), journaled);
+            journaled.add("third");
+        } finally {
+            journaled.close();
+        }
+        journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            Assert.assertEquals(Arrays.asList("first", "third"), journaled);
+        } finally {
+            journaled.close();
+        }
+    }
+
+    // writes two elements, appends the given bytes to the journal, and checks only the elements survive reopening
+    // - and that the list carries on journaling after them
+    private void checkBadTailIsDropped(byte[] tail) throws Exception {
+        ROT13JournaledList journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            journaled.add("first");
+            journaled.add("second");
+        } finally {
+            journaled.close();
+        }
+        File journal = new File(folder.getRoot(), "test.journal");
+        long length = journal.length();
+        RandomAccessFile raf = new RandomAccessFile(journal, "rw");
+        try {
+            raf.seek(length);
+            raf.write(tail);
+        } finally {
+            raf.close();
+        }
+
+        journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            Assert.assertEquals(Arrays.asList("first", "second"), journaled);
+            Assert.assertEquals(length, journal.length());
+            journaled.add("third");
+        } finally {
+            journaled.close();
+        }
+        journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        try {
+            Assert.assertEquals(Arrays.asList("first", "second", "third"), journaled);
+        } finally {
+            journaled.close();
+        }
+    }
+
+    @Test
+    public void zeroedTailIsDropped() throws Exception {
+        checkBadTailIsDropped(new byte[512]);
+    }
+
+    @Test
+    public void garbageTailIsDropped() throws Exception {
+        byte[] garbage = new byte[512];
+        new Random(13).nextBytes(garbage);
+        checkBadTailIsDropped(garbage);
+    }
+
+    // a record which is whole and checksums correctly, but removes an element that isn't there
+    @Test
+    public void recordThatDoesntFitTheListIsDropped() throws Exception {
+        byte[] payload = {3, (byte) 0xe8, 0x07};
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(record);
+        out.writeByte(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+        checkBadTailIsDropped(record.toByteArray());
+    }
+
+    @Test
+    public void failedJournalWritesLeaveTheListUnchanged() throws Exception {
+        ROT13JournaledList journaled = open(ROT13JournaledList.DEFAULT_SNAPSHOT_THRESHOLD);
+        journaled.add("one");
+        long journalBytes = journaled.getJournalBytes();
+        try {
+            journaled.add(5, "two");
+            Assert.fail("should have thrown exception");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        Assert.assertEquals(journalBytes, journaled.getJournalBytes());
+
+        // more than the journal's buffer holds, so the write reaches the closed file
+        journaled.close();
+        char[] big = new char[20000];
+        Arrays.fill(big, 'x');
+        try {
+            journaled.add(new String(big));
+            Assert.fail("should have thrown exception");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+        Assert.assertEquals(Arrays.asList("one"), journaled);
+        try {
+            journaled.set(0, "won");
+            Assert.fail("should have thrown exception");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+        Assert.assertEquals(Arrays.asList("one"), journaled);
+    }
+
+}
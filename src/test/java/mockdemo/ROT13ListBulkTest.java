@@ -0,0 +1,133 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class ROT13ListBulkTest {
+
+    // a delegate that refuses element-at-a-time calls, so only its bulk methods can be used
+    private static class BulkOnlyList extends ArrayList<String> {
+        BulkOnlyList(String... elements) {
+            super(Arrays.asList(elements));
+        }
+
+        @Override
+        public boolean add(String s) {
+            throw new AssertionError("add(" + s + ")");
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            throw new AssertionError("remove(" + o + ")");
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            throw new AssertionError("contains(" + o + ")");
+        }
+
+        @Override
+        public boolean containsAll(Collection<?> c) {
+            // ArrayList's own containsAll goes through contains()
+            return new ArrayList<String>(this).containsAll(c);
+        }
+    }
+
+    @Test
+    public void addsAllInOneCall() {
+        List<String> delegate = new BulkOnlyList("bar");
+        ROT13List underTest = new ROT13List(delegate);
+
+        Assert.assertTrue(underTest.addAll(Arrays.asList("two", "three")));
+        Assert.assertTrue(underTest.addAll(1, Arrays.asList("one and a half")));
+        Assert.assertFalse(underTest.addAll(new ArrayList<String>()));
+
+        Assert.assertEquals(Arrays.asList("bar", "bar naq n unys", "gjb", "guerr"), delegate);
+    }
+
+    @Test
+    public void addsAllOfAnotherROT13ListWithoutReencoding() {
+        List<String> delegate = new BulkOnlyList("bar");
+        ROT13List underTest = new ROT13List(delegate);
+
+        Assert.assertTrue(underTest.addAll(new ROT13List(new ArrayList<String>(Arrays.asList("gjb")))));
+        Assert.assertTrue(underTest.addAll(underTest));
+
+        Assert.assertEquals(Arrays.asList("bar", "gjb", "bar", "gjb"), delegate);
+    }
+
+    @Test
+    public void removesAndRetainsAll() {
+        List<String> delegate = new BulkOnlyList("bar", "gjb", "guerr", "gjb", "sbhe");
+        ROT13List underTest = new ROT13List(delegate);
+
+        Assert.assertTrue(underTest.removeAll(Arrays.<Object>asList("two", 4, "four")));
+        Assert.assertEquals(Arrays.asList("one", "three"), underTest);
+        Assert.assertFalse(underTest.removeAll(Arrays.asList("five")));
+
+        Assert.assertTrue(underTest.retainAll(Arrays.<Object>asList("three", 3.0)));
+        Assert.assertEquals(Arrays.asList("guerr"), delegate);
+    }
+
+    @Test
+    public void containsAll() {
+        ROT13List underTest = new ROT13List(new BulkOnlyList("bar", "gjb", null));
+
+        Assert.assertTrue(underTest.containsAll(Arrays.asList("two", "one", null)));
+        Assert.assertFalse(underTest.containsAll(Arrays.asList("two", "three")));
+        Assert.assertFalse(underTest.containsAll(Arrays.<Object>asList("one", 2)));
+        Assert.assertTrue(underTest.containsAll(new ArrayList<String>()));
+    }
+
+    @Test
+    public void containsAllOfManyIteratesTheDelegateOnce() {
+        List<String> elements = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            elements.add("value " + i);
+        }
+        // with no containsAll, the check has to go through a set of the delegate's contents
+        ROT13List underTest = new ROT13List(new BulkOnlyList() {
+            @Override
+            public boolean containsAll(Collection<?> c) {
+                throw new AssertionError("containsAll(" + c + ")");
+            }
+        });
+        underTest.addAll(elements);
+
+        Assert.assertTrue(underTest.containsAll(elements));
+        elements.add("value 100");
+        Assert.assertFalse(underTest.containsAll(elements));
+    }
+
+    @Test
+    public void containsAllUsesTheIndex() {
+        List<String> delegate = new BulkOnlyList("bar", "gjb", null) {
+            @Override
+            public boolean containsAll(Collection<?> c) {
+                throw new AssertionError("containsAll(" + c + ")");
+            }
+        };
+        ROT13List underTest = ROT13List.builder(delegate).indexed(true).build();
+
+        Assert.assertTrue(underTest.containsAll(Arrays.asList("two", "one", null)));
+        Assert.assertFalse(underTest.containsAll(Arrays.asList("two", "three")));
+    }
+
+    @Test
+    public void bulkRemovalClearsDecodeCache() {
+        ROT13List underTest = ROT13List.builder(new ArrayList<String>(Arrays.asList("bar", "gjb")))
+                .decodeCacheSize(4).build();
+        underTest.get(0);
+        underTest.get(1);
+        Assert.assertFalse(underTest.removeAll(Arrays.asList("three")));
+        Assert.assertEquals(2, underTest.getDecodeCache().size());
+        Assert.assertTrue(underTest.removeAll(Arrays.asList("two")));
+        Assert.assertEquals(0, underTest.getDecodeCache().size());
+    }
+
+}
@@ -0,0 +1,70 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
+public class ROT13ListEncodedFormTest {
+
+    private static final List<String> WORDS = Arrays.asList("Zebra", "apple", "mango", null, "Nectarine", "", "apple");
+
+    @Test
+    public void equalsComparesDelegates() {
+        ROT13List a = new ROT13List(new ArrayList<String>());
+        ROT13List b = new ROT13List(new LinkedList<String>());
+        a.addAll(WORDS);
+        b.addAll(WORDS);
+
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a, WORDS);
+        Assert.assertEquals(WORDS, a);
+        b.set(0, "zebra");
+        Assert.assertFalse(a.equals(b));
+        Assert.assertFalse(a.equals("not a list"));
+    }
+
+    @Test
+    public void hashCodeMatchesDecodedList() {
+        ROT13List underTest = new ROT13List(new ArrayList<String>());
+        underTest.addAll(WORDS);
+        Assert.assertEquals(WORDS.hashCode(), underTest.hashCode());
+        Assert.assertEquals(new ArrayList<String>().hashCode(), new ROT13List(new ArrayList<String>()).hashCode());
+    }
+
+    @Test
+    public void sortsByDecodedValues() {
+        ROT13List underTest = new ROT13List(new LinkedList<String>());
+        underTest.addAll(Arrays.asList("Zebra", "apple", "mango", "Nectarine", "", "apple"));
+        List<String> expected = new ArrayList<String>(underTest);
+
+        Collections.sort(expected);
+        underTest.sort(null);
+        Assert.assertEquals(expected, underTest);
+
+        Collections.sort(expected, String.CASE_INSENSITIVE_ORDER);
+        underTest.sort(String.CASE_INSENSITIVE_ORDER);
+        Assert.assertEquals(expected, underTest);
+    }
+
+    @Test
+    public void sortCallsComparatorOnDecodedValuesAndKeepsIndexValid() {
+        ROT13List underTest = ROT13List.builder(new ArrayList<String>()).indexed(true).build();
+        underTest.addAll(Arrays.asList("b", "c", "a"));
+        underTest.sort(new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                Assert.assertTrue(a + " " + b, a.compareTo("d") < 0 && b.compareTo("d") < 0);
+                return b.compareTo(a);
+            }
+        });
+        Assert.assertEquals(Arrays.asList("c", "b", "a"), underTest);
+        Assert.assertEquals(2, underTest.indexOf("a"));
+    }
+
+}
@@ -0,0 +1,79 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+
+public class ROT13ListIterationTest {
+
+    // a linked delegate that won't put up with being walked by index
+    private static class NoRandomAccessList extends LinkedList<String> {
+        NoRandomAccessList(String... elements) {
+            super(Arrays.asList(elements));
+        }
+
+        @Override
+        public String get(int index) {
+            throw new AssertionError("get(" + index + ") called while iterating");
+        }
+    }
+
+    @Test
+    public void iteratesWithDelegateIterator() {
+        ROT13List underTest = new ROT13List(new NoRandomAccessList("Uryyb", "Jbeyq"));
+
+        StringBuilder sb = new StringBuilder();
+        for (String s : underTest) {
+            sb.append(s).append(' ');
+        }
+        Assert.assertEquals("Hello World ", sb.toString());
+        Assert.assertEquals("[Hello, World]", underTest.toString());
+        Assert.assertEquals(Arrays.asList("Hello", "World"), underTest);
+        Assert.assertEquals(Arrays.asList("Hello", "World").hashCode(), underTest.hashCode());
+    }
+
+    @Test
+    public void walksBackwards() {
+        ListIterator<String> it = new ROT13List(new NoRandomAccessList("bar", "gjb", "guerr")).listIterator(3);
+        Assert.assertEquals(2, it.previousIndex());
+        Assert.assertEquals("three", it.previous());
+        Assert.assertEquals("two", it.previous());
+        Assert.assertEquals("one", it.previous());
+        Assert.assertFalse(it.hasPrevious());
+    }
+
+    @Test
+    public void mutatesThroughIterator() {
+        List<String> delegate = new NoRandomAccessList("bar", "gjb", "guerr");
+        ROT13List underTest = new ROT13List(delegate);
+
+        ListIterator<String> it = underTest.listIterator();
+        Assert.assertEquals("one", it.next());
+        it.set("uno");
+        Assert.assertEquals("two", it.next());
+        it.remove();
+        it.add("deux");
+        Assert.assertEquals("three", it.next());
+
+        Assert.assertEquals(Arrays.asList("hab", "qrhk", "guerr"), delegate);
+    }
+
+    @Test
+    public void mutationsThroughIteratorInvalidateDecodeCache() {
+        ROT13List underTest = ROT13List.builder(new LinkedList<String>(Arrays.asList("bar", "gjb")))
+                .decodeCacheSize(4).build();
+        Iterator<String> it = underTest.iterator();
+        it.next();
+        it.next();
+        Assert.assertEquals(2, underTest.getDecodeCache().size());
+        it.remove();
+        Assert.assertEquals(1, underTest.getDecodeCache().size());
+        Assert.assertEquals(Arrays.asList("one"), underTest);
+    }
+
+}
@@ -0,0 +1,78 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class ROT13ListStreamTest {
+
+    private static List<String> encoded(List<String> delegate, int count) {
+        for (int i = 0; i < count; i++) {
+            delegate.add(ROT13List.rot13("element " + i));
+        }
+        return delegate;
+    }
+
+    @Test
+    public void spliteratorSplitsAndReportsSizeLikeDelegate() {
+        ROT13List underTest = new ROT13List(encoded(new ArrayList<String>(), 1000));
+        Spliterator<String> spliterator = underTest.spliterator();
+
+        Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        Assert.assertEquals(1000, spliterator.getExactSizeIfKnown());
+        Spliterator<String> prefix = spliterator.trySplit();
+        Assert.assertEquals(500, prefix.estimateSize());
+        Assert.assertEquals(500, spliterator.estimateSize());
+
+        final StringBuilder first = new StringBuilder();
+        Assert.assertTrue(prefix.tryAdvance(new Consumer<String>() {
+            @Override
+            public void accept(String s) {
+                first.append(s);
+            }
+        }));
+        Assert.assertEquals("element 0", first.toString());
+    }
+
+    @Test
+    public void dropsSortedSinceDecodingReorders() {
+        ROT13List underTest = new ROT13List(new ArrayList<String>(new TreeSet<String>(Arrays.asList("n", "m"))) {
+            @Override
+            public Spliterator<String> spliterator() {
+                return new TreeSet<String>(this).spliterator();
+            }
+        });
+        Assert.assertFalse(underTest.spliterator().hasCharacteristics(Spliterator.SORTED));
+        Assert.assertTrue(underTest.spliterator().hasCharacteristics(Spliterator.DISTINCT));
+    }
+
+    @Test
+    public void parallelStreamDecodesEveryElement() {
+        for (List<String> delegate : Arrays.asList(new ArrayList<String>(), new LinkedList<String>())) {
+            ROT13List underTest = new ROT13List(encoded(delegate, 100000));
+
+            List<String> collected = underTest.parallelStream().collect(Collectors.toList());
+
+            Assert.assertEquals(100000, collected.size());
+            for (int i = 0; i < collected.size(); i++) {
+                Assert.assertEquals("element " + i, collected.get(i));
+            }
+            Assert.assertEquals(100000, underTest.parallelStream().filter(new Predicate<String>() {
+                @Override
+                public boolean test(String s) {
+                    return s.startsWith("element ");
+                }
+            }).count());
+        }
+    }
+
+}
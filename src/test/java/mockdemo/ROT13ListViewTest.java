@@ -0,0 +1,53 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class ROT13ListViewTest {
+
+    @Test
+    public void viewDecodesOnDemand() {
+        ROT13List underTest = new ROT13List(new ArrayList<String>());
+        underTest.addAll(Arrays.asList("key=Value", null, ""));
+
+        CharSequence view = underTest.getView(0);
+        Assert.assertEquals(9, view.length());
+        Assert.assertEquals('k', view.charAt(0));
+        Assert.assertEquals('V', view.charAt(4));
+        Assert.assertEquals("key=Value", view.toString());
+        Assert.assertEquals("Value", view.subSequence(4, 9).toString());
+        Assert.assertEquals("al", view.subSequence(4, 9).subSequence(1, 3).toString());
+
+        Assert.assertNull(underTest.getView(1));
+        Assert.assertEquals("", underTest.getView(2).toString());
+    }
+
+    @Test
+    public void viewChecksBounds() {
+        ROT13List underTest = new ROT13List(new ArrayList<String>());
+        underTest.add("abc");
+        CharSequence view = underTest.getView(0).subSequence(1, 3);
+        try {
+            view.charAt(2);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            view.subSequence(1, 3);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            underTest.getView(1);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+}
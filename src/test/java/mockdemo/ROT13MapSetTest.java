@@ -0,0 +1,89 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+public class ROT13MapSetTest {
+
+    @Test
+    public void setStoresEncodedElements() {
+        Set<String> delegate = new HashSet<String>();
+        ROT13Set underTest = new ROT13Set(delegate);
+
+        Assert.assertTrue(underTest.add("Hello"));
+        Assert.assertFalse(underTest.add("Hello"));
+        Assert.assertTrue(underTest.add(null));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("Uryyb", null)), delegate);
+
+        Assert.assertTrue(underTest.contains("Hello"));
+        Assert.assertTrue(underTest.contains(null));
+        Assert.assertFalse(underTest.contains("Uryyb"));
+        Assert.assertFalse(underTest.contains(42));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("Hello", null)), underTest);
+
+        Assert.assertTrue(underTest.remove("Hello"));
+        Assert.assertFalse(underTest.remove("Hello"));
+        Assert.assertEquals(1, underTest.size());
+    }
+
+    @Test
+    public void mapStoresEncodedKeys() {
+        Map<String, Integer> delegate = new HashMap<String, Integer>();
+        ROT13Map<Integer> underTest = new ROT13Map<Integer>(delegate);
+
+        Assert.assertNull(underTest.put("one", 1));
+        Assert.assertEquals(Integer.valueOf(1), underTest.put("one", 11));
+        underTest.put("two", 2);
+        Assert.assertEquals(Integer.valueOf(11), delegate.get("bar"));
+        Assert.assertEquals(Integer.valueOf(2), delegate.get("gjb"));
+
+        Assert.assertEquals(Integer.valueOf(11), underTest.get("one"));
+        Assert.assertNull(underTest.get("bar"));
+        Assert.assertNull(underTest.get(42));
+        Assert.assertTrue(underTest.containsKey("two"));
+        Assert.assertTrue(underTest.containsValue(2));
+
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        expected.put("one", 11);
+        expected.put("two", 2);
+        Assert.assertEquals(expected, underTest);
+        Assert.assertEquals(expected.hashCode(), underTest.hashCode());
+        Assert.assertEquals(expected.keySet(), underTest.keySet());
+
+        Assert.assertEquals(Integer.valueOf(2), underTest.remove("two"));
+        Assert.assertEquals(1, delegate.size());
+    }
+
+    @Test
+    public void viewsWriteThrough() {
+        Map<String, Integer> delegate = new HashMap<String, Integer>();
+        ROT13Map<Integer> underTest = new ROT13Map<Integer>(delegate);
+        underTest.put("a", 1);
+        underTest.put("b", 2);
+        underTest.put("c", 3);
+
+        for (Map.Entry<String, Integer> e : underTest.entrySet()) {
+            e.setValue(e.getValue() * 10);
+        }
+        Assert.assertEquals(Integer.valueOf(20), delegate.get("o"));
+
+        Assert.assertTrue(underTest.entrySet().contains(new AbstractMap.SimpleEntry<String, Integer>("a", 10)));
+        Assert.assertFalse(underTest.entrySet().contains(new AbstractMap.SimpleEntry<String, Integer>("a", 1)));
+        Assert.assertTrue(underTest.entrySet().remove(new AbstractMap.SimpleEntry<String, Integer>("a", 10)));
+
+        underTest.keySet().remove("b");
+        Iterator<String> it = underTest.keySet().iterator();
+        Assert.assertEquals("c", it.next());
+        it.remove();
+        Assert.assertTrue(delegate.isEmpty());
+    }
+
+}
@@ -0,0 +1,126 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ROT13MetricsTest {
+
+    @Test
+    public void countsOperationsAndChars() {
+        ROT13Metrics metrics = new ROT13Metrics();
+        ROT13List underTest = ROT13List.builder(new ArrayList<String>()).metrics(metrics).build();
+        Assert.assertSame(metrics, underTest.getMetrics());
+
+        underTest.add("hello");
+        underTest.add(0, "hi");
+        Assert.assertEquals("hello", underTest.get(1));
+        Assert.assertEquals("hi", underTest.set(0, "hey"));
+        Assert.assertEquals(1, underTest.indexOf("hello"));
+        Assert.assertTrue(underTest.contains("hey"));
+        Assert.assertEquals("hey", underTest.remove(0));
+        Assert.assertTrue(underTest.remove("hello"));
+
+        ROT13Metrics.Snapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(2, snapshot.getCount(ROT13Metrics.Operation.ADD));
+        Assert.assertEquals(1, snapshot.getCount(ROT13Metrics.Operation.GET));
+        Assert.assertEquals(1, snapshot.getCount(ROT13Metrics.Operation.SET));
+        Assert.assertEquals(1, snapshot.getCount(ROT13Metrics.Operation.INDEX_OF));
+        Assert.assertEquals(1, snapshot.getCount(ROT13Metrics.Operation.CONTAINS));
+        Assert.assertEquals(2, snapshot.getCount(ROT13Metrics.Operation.REMOVE));
+        // hello, hi, hey, hello, hey, hello
+        Assert.assertEquals(5 + 2 + 3 + 5 + 3 + 5, snapshot.getCharsEncoded());
+        // get hello, set returned hi, remove returned hey
+        Assert.assertEquals(5 + 2 + 3, snapshot.getCharsDecoded());
+        Assert.assertEquals(8, snapshot.getDelegateTime().getCount());
+        Assert.assertEquals(8, snapshot.getCodecTime().getCount());
+        Assert.assertTrue(snapshot.toString().contains("add=2"));
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.snapshot().getCount(ROT13Metrics.Operation.ADD));
+        Assert.assertEquals(0, metrics.snapshot().getDelegateTime().getCount());
+    }
+
+    @Test
+    public void countsLastIndexOfAndBulkOperations() {
+        ROT13Metrics metrics = new ROT13Metrics();
+        ROT13List underTest = ROT13List.builder(new ArrayList<String>()).metrics(metrics).build();
+
+        Assert.assertTrue(underTest.addAll(Arrays.asList("one", "two", "three")));
+        Assert.assertTrue(underTest.addAll(1, Arrays.asList("four")));
+        Assert.assertEquals(1, underTest.lastIndexOf("four"));
+        Assert.assertTrue(underTest.containsAll(Arrays.asList("one", "two")));
+        Assert.assertTrue(underTest.removeAll(Arrays.asList("two")));
+        Assert.assertTrue(underTest.retainAll(Arrays.asList("one", "four")));
+        Assert.assertEquals(Arrays.asList("one", "four"), underTest);
+
+        ROT13Metrics.Snapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(2, snapshot.getCount(ROT13Metrics.Operation.ADD_ALL));
+        Assert.assertEquals(1, snapshot.getCount(ROT13Metrics.Operation.LAST_INDEX_OF));
+        Assert.assertEquals(1, snapshot.getCount(ROT13Metrics.Operation.CONTAINS_ALL));
+        Assert.assertEquals(1, snapshot.getCount(ROT13Metrics.Operation.REMOVE_ALL));
+        Assert.assertEquals(1, snapshot.getCount(ROT13Metrics.Operation.RETAIN_ALL));
+        // one two three, four, four, one two, two, one four
+        Assert.assertEquals(11 + 4 + 4 + 6 + 3 + 7, snapshot.getCharsEncoded());
+        Assert.assertEquals(6, snapshot.getDelegateTime().getCount());
+    }
+
+    @Test
+    public void disabledByDefault() {
+        Assert.assertNull(new ROT13List(new ArrayList<String>()).getMetrics());
+        Assert.assertNull(ROT13List.builder(new ArrayList<String>())
+                .decodeCacheSize(16).indexed(true).build().getMetrics());
+    }
+
+    @Test
+    public void sharedBetweenThreads() throws Exception {
+        final ROT13Metrics metrics = new ROT13Metrics();
+        final List<String> delegate = Collections.synchronizedList(new ArrayList<String>());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    ROT13List list = ROT13List.builder(delegate).metrics(metrics).build();
+                    for (int i = 0; i < 1000; i++) {
+                        list.add("x");
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(4000, metrics.snapshot().getCount(ROT13Metrics.Operation.ADD));
+        Assert.assertEquals(4000, metrics.snapshot().getCharsEncoded());
+    }
+
+    @Test
+    public void histogramIsPreciseToAnEighth() {
+        for (long value : Arrays.asList(0L, 1L, 7L, 8L, 9L, 15L, 16L, 17L, 1000L, 123456789L, Long.MAX_VALUE)) {
+            int bucket = ROT13Metrics.Histogram.bucketOf(value);
+            Assert.assertTrue(bucket < ROT13Metrics.Histogram.BUCKETS);
+            long highest = ROT13Metrics.Histogram.highestValueIn(bucket);
+            Assert.assertTrue(value + " -> " + highest, highest >= value);
+            Assert.assertTrue(value + " -> " + highest, highest - value <= value / 8);
+            Assert.assertEquals(bucket, ROT13Metrics.Histogram.bucketOf(highest));
+        }
+
+        ROT13Metrics.Histogram histogram = new ROT13Metrics.Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        ROT13Metrics.HistogramSnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1000, snapshot.getCount());
+        Assert.assertEquals(500500000L, snapshot.getTotalNanos());
+        Assert.assertEquals(500000, snapshot.getPercentileNanos(50), 500000 / 8);
+        Assert.assertEquals(990000, snapshot.getPercentileNanos(99), 990000 / 8);
+        Assert.assertEquals(1000000, snapshot.getMaxNanos(), 1000000 / 8);
+    }
+
+}
@@ -0,0 +1,74 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ROT13OffHeapListTest {
+
+    @Test
+    public void storesEncodedAndDecodesOnGet() {
+        ROT13OffHeapList underTest = new ROT13OffHeapList();
+        underTest.add("Hello World");
+        underTest.add("");
+        underTest.add(null);
+        underTest.add("\u00e9clair \u65e5\u672c");
+        underTest.add(0, "first");
+
+        Assert.assertEquals(Arrays.asList("first", "Hello World", "", null, "\u00e9clair \u65e5\u672c"), underTest);
+        Assert.assertEquals(5 + 11 + 2 * 9, underTest.getLiveBytes());
+    }
+
+    @Test
+    public void findsElementsWithoutDecoding() {
+        ROT13OffHeapList underTest = new ROT13OffHeapList();
+        underTest.addAll(Arrays.asList("one", "two", null, "\u65e5\u672c", "two", "twp"));
+
+        Assert.assertEquals(1, underTest.indexOf("two"));
+        Assert.assertEquals(4, underTest.lastIndexOf("two"));
+        Assert.assertEquals(2, underTest.indexOf(null));
+        Assert.assertEquals(3, underTest.indexOf("\u65e5\u672c"));
+        Assert.assertTrue(underTest.contains("twp"));
+        Assert.assertFalse(underTest.contains("tw"));
+        Assert.assertFalse(underTest.contains("twq"));
+        Assert.assertFalse(underTest.contains(2));
+    }
+
+    @Test
+    public void behavesLikeArrayListUnderChurn() {
+        List<String> expected = new ArrayList<String>();
+        ROT13OffHeapList underTest = new ROT13OffHeapList(256);
+        Random random = new Random(13);
+        for (int i = 0; i < 20000; i++) {
+            String s = random.nextInt(10) == 0 ? "wide \u0394 " + i : "element " + i;
+            int op = expected.isEmpty() ? 0 : random.nextInt(4);
+            if (op <= 1) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, s);
+                underTest.add(index, s);
+            } else if (op == 2) {
+                int index = random.nextInt(expected.size());
+                Assert.assertEquals(expected.set(index, s), underTest.set(index, s));
+            } else {
+                int index = random.nextInt(expected.size());
+                Assert.assertEquals(expected.remove(index), underTest.remove(index));
+            }
+        }
+        Assert.assertEquals(expected, underTest);
+        Assert.assertTrue(underTest.getOffHeapBytes() < 3 * underTest.getLiveBytes() + 2 * 256);
+
+        underTest.clear();
+        Assert.assertTrue(underTest.isEmpty());
+        Assert.assertEquals(0, underTest.getOffHeapBytes());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsBadIndex() {
+        new ROT13OffHeapList().get(0);
+    }
+
+}
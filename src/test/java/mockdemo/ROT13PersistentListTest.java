@@ -0,0 +1,268 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ROT13PersistentListTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void contentsSurviveReopening() throws Exception {
+        File dir = folder.getRoot();
+        List<String> expected = new ArrayList<String>();
+        ROT13PersistentList store = new ROT13PersistentList(dir, "test");
+        try {
+            ROT13List list = new ROT13List(store);
+            for (int i = 0; i < 3000; i++) {
+                list.add("element " + i);
+                expected.add("element " + i);
+            }
+            list.add(null);
+            expected.add(null);
+            list.add("");
+            expected.add("");
+            list.add("\u03b1\u03b2\u03b3 abc");
+            expected.add("\u03b1\u03b2\u03b3 abc");
+            Assert.assertEquals("ryrzrag 0", store.get(0));
+        } finally {
+            store.close();
+        }
+
+        store = new ROT13PersistentList(dir, "test");
+        try {
+            Assert.assertEquals(expected, new ROT13List(store));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void removesInsertsAndSetsSurviveReopening() throws Exception {
+        File dir = folder.getRoot();
+        List<String> expected = new ArrayList<String>(Arrays.asList("a", "b", "c", "d", "e", "f"));
+        ROT13PersistentList store = new ROT13PersistentList(dir, "test");
+        try {
+            store.addAll(expected);
+            Assert.assertEquals("b", store.remove(1));
+            expected.remove(1);
+            Assert.assertEquals("e", store.remove(3));
+            expected.remove(3);
+            store.add(1, "x");
+            expected.add(1, "x");
+            store.add(4, "y");
+            expected.add(4, "y");
+            Assert.assertEquals("a", store.set(0, "z"));
+            expected.set(0, "z");
+            Assert.assertEquals(expected, store);
+        } finally {
+            store.close();
+        }
+
+        store = new ROT13PersistentList(dir, "test");
+        try {
+            Assert.assertEquals(expected, store);
+            store.remove(0);
+            expected.remove(0);
+            Assert.assertEquals(expected, store);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void compactionReclaimsGarbage() throws Exception {
+        File dir = folder.getRoot();
+        List<String> expected = new ArrayList<String>();
+        ROT13PersistentList store = new ROT13PersistentList(dir, "test");
+        try {
+            for (int i = 0; i < 1000; i++) {
+                store.add("value " + i);
+                expected.add("value " + i);
+            }
+            for (int i = 999; i >= 0; i -= 2) {
+                store.remove(i);
+                expected.remove(i);
+            }
+            for (int i = 0; i < expected.size(); i += 3) {
+                store.set(i, "changed " + i);
+                expected.set(i, "changed " + i);
+            }
+            long before = store.getLogBytes();
+            store.compact();
+            Assert.assertEquals(store.getLiveBytes(), store.getLogBytes());
+            Assert.assertTrue(store.getLogBytes() < before / 2);
+            Assert.assertEquals(expected, store);
+            store.add("after");
+            expected.add("after");
+        } finally {
+            store.close();
+        }
+        Assert.assertFalse(new File(dir, "test.0.log").exists());
+
+        store = new ROT13PersistentList(dir, "test");
+        try {
+            Assert.assertEquals(expected, store);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void compactsInTheBackground() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ROT13PersistentList store = new ROT13PersistentList(folder.getRoot(), "test", executor, 1024);
+        try {
+            for (int i = 0; i < 5000; i++) {
+                store.add("value " + i);
+                store.set(i, "value " + i + "?");
+                store.set(i, "value " + i + "!");
+            }
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            // at least one compaction has moved the list onto a new log
+            Assert.assertFalse(new File(folder.getRoot(), "test.0.log").exists());
+            for (int i = 0; i < 5000; i++) {
+                Assert.assertEquals("value " + i + "!", store.get(i));
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void findsElementsAmongManyTombstones() throws Exception {
+        List<String> expected = new ArrayList<String>();
+        ROT13PersistentList store = new ROT13PersistentList(folder.getRoot(), "test");
+        try {
+            for (int i = 0; i < 3000; i++) {
+                store.add("value " + i);
+                expected.add("value " + i);
+            }
+            for (int i = expected.size() - 1; i >= 0; i -= 3) {
+                store.remove(i);
+                expected.remove(i);
+            }
+            for (int i = 0; i < 50; i++) {
+                int at = (i * 397) % expected.size();
+                store.add(at, "inserted " + i);
+                expected.add(at, "inserted " + i);
+            }
+            Assert.assertEquals(expected, store);
+        } finally {
+            store.close();
+        }
+
+        // the tombstones are read back rather than found again, including after the index has grown
+        store = new ROT13PersistentList(folder.getRoot(), "test");
+        try {
+            Assert.assertEquals(expected, store);
+            for (int i = 0; i < 2000; i++) {
+                store.add(i * 2, "more " + i);
+                expected.add(i * 2, "more " + i);
+            }
+            store.remove(10);
+            expected.remove(10);
+        } finally {
+            store.close();
+        }
+        store = new ROT13PersistentList(folder.getRoot(), "test");
+        try {
+            Assert.assertEquals(expected, store);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void reportsBackgroundCompactionFailures() throws Exception {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                tasks.add(task);
+            }
+        };
+        ROT13PersistentList store = new ROT13PersistentList(folder.getRoot(), "test", executor, 1024);
+        try {
+            for (int i = 0; i < 1000 && tasks.isEmpty(); i++) {
+                store.add("value " + i);
+                store.set(i, "value " + i + "!");
+                store.set(i, "value " + i + "?");
+            }
+            Assert.assertEquals(1, tasks.size());
+            // a directory where the new log should go makes the compaction fail
+            Assert.assertTrue(new File(folder.getRoot(), "test.1.log").mkdir());
+            tasks.get(0).run();
+            try {
+                store.get(0);
+                Assert.fail("should have thrown exception");
+            } catch (UncheckedIOException e) {
+                // expected
+            }
+            Assert.assertEquals("value 0?", store.get(0));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void failedCompactionLeavesTheListAsItWas() throws Exception {
+        File dir = folder.getRoot();
+        List<String> expected = new ArrayList<String>();
+        ROT13PersistentList store = new ROT13PersistentList(dir, "test") {
+            @Override
+            void moveIndex(File from, File to) throws IOException {
+                throw new AtomicMoveNotSupportedException(from.toString(), to.toString(), "not here");
+            }
+        };
+        try {
+            for (int i = 0; i < 100; i++) {
+                store.add("value " + i);
+                expected.add("value " + i);
+            }
+            for (int i = 0; i < 100; i += 2) {
+                store.set(i, "changed " + i);
+                expected.set(i, "changed " + i);
+            }
+            store.remove(7);
+            expected.remove(7);
+            try {
+                store.compact();
+                Assert.fail("should have thrown exception");
+            } catch (AtomicMoveNotSupportedException e) {
+                // expected
+            }
+            Assert.assertEquals(expected, store);
+            store.add("after");
+            expected.add("after");
+            Assert.assertEquals(expected, store);
+            Assert.assertFalse(new File(dir, "test.idx.tmp").exists());
+            Assert.assertFalse(new File(dir, "test.1.log").exists());
+        } finally {
+            store.close();
+        }
+
+        store = new ROT13PersistentList(dir, "test");
+        try {
+            Assert.assertEquals(expected, store);
+        } finally {
+            store.close();
+        }
+    }
+
+}
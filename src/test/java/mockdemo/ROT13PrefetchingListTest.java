@@ -0,0 +1,230 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class ROT13PrefetchingListTest {
+
+    // a delegate which notes which threads read it
+    private static class SlowList extends AbstractList<String> {
+        final ArrayList<String> contents = new ArrayList<String>();
+        volatile int callerReads;
+        final Thread caller = Thread.currentThread();
+
+        @Override
+        public String get(int index) {
+            if (Thread.currentThread() == caller) {
+                callerReads++;
+            }
+            return contents.get(index);
+        }
+
+        @Override
+        public int size() {
+            return contents.size();
+        }
+
+        @Override
+        public String set(int index, String element) {
+            return contents.set(index, element);
+        }
+
+        @Override
+        public void add(int index, String element) {
+            contents.add(index, element);
+        }
+
+        @Override
+        public String remove(int index) {
+            return contents.remove(index);
+        }
+    }
+
+    // counts the reads of each element, taking a while over every one
+    private static class CountingList extends AbstractList<String> {
+        final List<String> contents;
+        final AtomicIntegerArray reads;
+
+        CountingList(List<String> contents) {
+            this.contents = contents;
+            this.reads = new AtomicIntegerArray(contents.size());
+        }
+
+        @Override
+        public String get(int index) {
+            reads.incrementAndGet(index);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return contents.get(index);
+        }
+
+        @Override
+        public int size() {
+            return contents.size();
+        }
+    }
+
+    private static SlowList slowList(int size) {
+        SlowList list = new SlowList();
+        for (int i = 0; i < size; i++) {
+            list.contents.add(ROT13List.rot13("item" + i));
+        }
+        return list;
+    }
+
+    @Test
+    public void sequentialReadsComeFromTheBackground() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SlowList delegate = slowList(1000);
+            ROT13PrefetchingList underTest = new ROT13PrefetchingList(delegate, 64, executor);
+            for (int i = 0; i < underTest.size(); i++) {
+                Assert.assertEquals("item" + i, underTest.get(i));
+            }
+            // the first couple of reads, before the walk was seen to be sequential, always hit the delegate
+            // directly; after that it depends on whether the background thread kept ahead
+            Assert.assertTrue(delegate.callerReads >= 2);
+            Assert.assertEquals(1000, delegate.callerReads + underTest.getPrefetchedReads());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void readsAheadOfAnInstantFetcherAreAllPrefetched() {
+        SlowList delegate = slowList(1000);
+        ROT13PrefetchingList underTest = new ROT13PrefetchingList(delegate, 64, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        for (int i = 0; i < underTest.size(); i++) {
+            Assert.assertEquals("item" + i, underTest.get(i));
+        }
+        Assert.assertEquals(998, underTest.getPrefetchedReads());
+    }
+
+    @Test
+    public void rejectedFetchesFallBackToTheDelegate() {
+        SlowList delegate = slowList(100);
+        ROT13PrefetchingList underTest = new ROT13PrefetchingList(delegate, 8, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("shut down");
+            }
+        });
+        for (int i = 0; i < underTest.size(); i++) {
+            Assert.assertEquals("item" + i, underTest.get(i));
+        }
+        Assert.assertEquals(0, underTest.getPrefetchedReads());
+        Assert.assertEquals(100, delegate.callerReads);
+    }
+
+    @Test
+    public void readersDontWaitForAStalledFetch() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the fetcher can't start until the reader is done
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            SlowList delegate = slowList(100);
+            ROT13PrefetchingList underTest = new ROT13PrefetchingList(delegate, 16, executor);
+            for (int i = 0; i < underTest.size(); i++) {
+                Assert.assertEquals("item" + i, underTest.get(i));
+            }
+            Assert.assertEquals(100, delegate.callerReads);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void aSequentialScanReadsEachElementOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountingList delegate = new CountingList(slowList(300).contents);
+            ROT13PrefetchingList underTest = new ROT13PrefetchingList(delegate, 16, executor);
+            for (int i = 0; i < underTest.size(); i++) {
+                Assert.assertEquals("item" + i, underTest.get(i));
+            }
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 300; i++) {
+                Assert.assertEquals("reads of " + i, 1, delegate.reads.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void randomReadsGoStraightToTheDelegate() {
+        SlowList delegate = slowList(100);
+        ROT13PrefetchingList underTest = new ROT13PrefetchingList(delegate, 8, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                Assert.fail("nothing should be prefetched");
+            }
+        });
+        Assert.assertEquals("item50", underTest.get(50));
+        Assert.assertEquals("item7", underTest.get(7));
+        Assert.assertEquals("item90", underTest.get(90));
+        Assert.assertEquals(3, delegate.callerReads);
+    }
+
+    @Test
+    public void writesDiscardPrefetchedWindows() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<String> expected = new ArrayList<String>();
+            for (int i = 0; i < 200; i++) {
+                expected.add("item" + i);
+            }
+            ROT13PrefetchingList underTest = new ROT13PrefetchingList(slowList(200), 16, executor);
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(expected.get(i), underTest.get(i));
+            }
+            underTest.set(101, "changed");
+            expected.set(101, "changed");
+            underTest.remove(102);
+            expected.remove(102);
+            underTest.add(110, "added");
+            expected.add(110, "added");
+            for (int i = 100; i < underTest.size(); i++) {
+                Assert.assertEquals(expected.get(i), underTest.get(i));
+            }
+            Assert.assertEquals(expected, underTest);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+public class ROT13ProcessorTest {
+
+    private static class Collector<T> implements Flow.Subscriber<T> {
+        final List<T> items = Collections.synchronizedList(new ArrayList<T>());
+        final CountDownLatch finished = new CountDownLatch(1);
+        final long initialRequest;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            finished.countDown();
+        }
+    }
+
+    // an upstream driven by hand, noting how much has been asked of it
+    private static class ManualUpstream implements Flow.Subscription {
+        long requested;
+        boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    @Test
+    public void translatesAPublishedStream() throws Exception {
+        ROT13Processor processor = new ROT13Processor();
+        Collector<String> collector = new Collector<String>(Long.MAX_VALUE);
+        processor.subscribe(collector);
+        SubmissionPublisher<String> publisher = new SubmissionPublisher<String>();
+        publisher.subscribe(processor);
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            publisher.submit("item " + i);
+            expected.add(ROT13List.rot13("item " + i));
+        }
+        publisher.close();
+        Assert.assertTrue(collector.finished.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(collector.completed);
+        Assert.assertEquals(expected, collector.items);
+    }
+
+    @Test
+    public void honoursDemandAndBatchesUpstreamRequests() {
+        ROT13Processor processor = new ROT13Processor(8, null);
+        ManualUpstream upstream = new ManualUpstream();
+        processor.onSubscribe(upstream);
+        Assert.assertEquals(8, upstream.requested);
+
+        Collector<String> collector = new Collector<String>(0);
+        processor.subscribe(collector);
+        for (int i = 0; i < 8; i++) {
+            processor.onNext("x" + i);
+        }
+        Assert.assertTrue(collector.items.isEmpty());
+
+        collector.subscription.request(3);
+        Assert.assertEquals(Arrays.asList("k0", "k1", "k2"), collector.items);
+        Assert.assertEquals(8, upstream.requested);
+
+        collector.subscription.request(2);
+        Assert.assertEquals(5, collector.items.size());
+        Assert.assertEquals(12, upstream.requested);
+
+        processor.onComplete();
+        Assert.assertFalse(collector.completed);
+        collector.subscription.request(10);
+        Assert.assertEquals(8, collector.items.size());
+        Assert.assertTrue(collector.completed);
+    }
+
+    @Test
+    public void cancellationAndBadRequestsReachUpstream() {
+        ROT13Processor processor = new ROT13Processor(4, null);
+        ManualUpstream upstream = new ManualUpstream();
+        processor.onSubscribe(upstream);
+        Collector<String> collector = new Collector<String>(1);
+        processor.subscribe(collector);
+        processor.onNext("a");
+        collector.subscription.cancel();
+        Assert.assertTrue(upstream.cancelled);
+        processor.onNext("b");
+        Assert.assertEquals(Arrays.asList("n"), collector.items);
+
+        processor = new ROT13Processor(4, null);
+        upstream = new ManualUpstream();
+        processor.onSubscribe(upstream);
+        collector = new Collector<String>(0);
+        processor.subscribe(collector);
+        collector.subscription.request(0);
+        Assert.assertTrue(upstream.cancelled);
+        Assert.assertTrue(collector.error instanceof IllegalArgumentException);
+
+        Collector<String> second = new Collector<String>(1);
+        processor.subscribe(second);
+        Assert.assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void translatesByteBuffersInPlaceOnAnExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ROT13ByteBufferProcessor processor = new ROT13ByteBufferProcessor(16, executor);
+            Collector<ByteBuffer> collector = new Collector<ByteBuffer>(Long.MAX_VALUE);
+            processor.subscribe(collector);
+            SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<ByteBuffer>();
+            publisher.subscribe(processor);
+            ByteBuffer direct = ByteBuffer.allocateDirect(32);
+            direct.put("Hello, direct buffer!".getBytes(StandardCharsets.US_ASCII));
+            direct.flip();
+            publisher.submit(ByteBuffer.wrap("Hello, World".getBytes(StandardCharsets.US_ASCII)));
+            publisher.submit(direct);
+            publisher.submit(ByteBuffer.wrap("read only".getBytes(StandardCharsets.US_ASCII)).asReadOnlyBuffer());
+            publisher.close();
+
+            Assert.assertTrue(collector.finished.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(2, collector.items.size());
+            Assert.assertEquals("Uryyb, Jbeyq", StandardCharsets.US_ASCII.decode(collector.items.get(0)).toString());
+            Assert.assertSame(direct, collector.items.get(1));
+            Assert.assertEquals("Uryyb, qverpg ohssre!", StandardCharsets.US_ASCII.decode(direct).toString());
+            Assert.assertTrue(collector.error instanceof ReadOnlyBufferException);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ROT13ServerTest {
+
+    private static InetSocketAddress loopback() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    // sends the bytes from another thread while reading the reply, so a reply bigger than the socket buffers
+    // can't hold anything up
+    private static byte[] roundTrip(InetSocketAddress address, final byte[] bytes) throws Exception {
+        final Socket socket = new Socket(address.getAddress(), address.getPort());
+        try {
+            final IOException[] failure = new IOException[1];
+            Thread writer = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        OutputStream out = socket.getOutputStream();
+                        for (int i = 0; i < bytes.length; i += 1000) {
+                            out.write(bytes, i, Math.min(1000, bytes.length - i));
+                        }
+                        socket.shutdownOutput();
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            };
+            writer.start();
+            ByteArrayOutputStream reply = new ByteArrayOutputStream();
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[4096];
+            for (int n; (n = in.read(buffer)) >= 0; ) {
+                reply.write(buffer, 0, n);
+            }
+            writer.join();
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            return reply.toByteArray();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static void checkServer(ROT13Server.Mode mode) throws Exception {
+        byte[] bytes = new byte[3 << 20];
+        new Random(13).nextBytes(bytes);
+        byte[] expected = bytes.clone();
+        ROT13List.translate(expected, 0, expected.length);
+
+        // a small buffer, so the server has to go round many times and wait on the client
+        ROT13Server server = new ROT13Server(mode, 4096);
+        try {
+            InetSocketAddress address = server.start(loopback());
+            Assert.assertArrayEquals(expected, roundTrip(address, bytes));
+            Assert.assertArrayEquals(new byte[0], roundTrip(address, new byte[0]));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void selectorServerTranslates() throws Exception {
+        checkServer(ROT13Server.Mode.SELECTOR);
+    }
+
+    @Test
+    public void threadedServerTranslates() throws Exception {
+        checkServer(ROT13Server.Mode.THREADS);
+    }
+
+    @Test
+    public void virtualThreadServerTranslates() throws Exception {
+        boolean available;
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            available = true;
+        } catch (NoSuchMethodException e) {
+            available = false;
+        }
+        Assume.assumeTrue(available);
+        checkServer(ROT13Server.Mode.VIRTUAL_THREADS);
+    }
+
+    @Test
+    public void selectorServerSurvivesResetConnections() throws Exception {
+        ROT13Server server = new ROT13Server(ROT13Server.Mode.SELECTOR, 4096);
+        try {
+            InetSocketAddress address = server.start(loopback());
+            for (int i = 0; i < 20; i++) {
+                Socket socket = new Socket(address.getAddress(), address.getPort());
+                socket.getOutputStream().write(new byte[100000]);
+                // close with a reset rather than a FIN, while the server still has replies to write
+                socket.setSoLinger(true, 0);
+                socket.close();
+            }
+            Assert.assertArrayEquals("Uryyb".getBytes("US-ASCII"), roundTrip(address, "Hello".getBytes("US-ASCII")));
+        } finally {
+            server.close();
+        }
+    }
+
+    // the first few clients fail to be set up, as when they've reset before the server gets to them
+    private static void checkServerKeepsAcceptingAfterFailures(ROT13Server.Mode mode) throws Exception {
+        final AtomicInteger failures = new AtomicInteger(3);
+        ROT13Server server = new ROT13Server(mode, 4096) {
+            @Override
+            void configure(SocketChannel client) throws IOException {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IOException("Connection reset by peer");
+                }
+                super.configure(client);
+            }
+        };
+        try {
+            InetSocketAddress address = server.start(loopback());
+            for (int i = 0; i < 3; i++) {
+                Socket socket = new Socket(address.getAddress(), address.getPort());
+                try {
+                    // the server drops the connection without a reply
+                    Assert.assertEquals(-1, socket.getInputStream().read());
+                } finally {
+                    socket.close();
+                }
+            }
+            Assert.assertArrayEquals("Uryyb".getBytes("US-ASCII"), roundTrip(address, "Hello".getBytes("US-ASCII")));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void selectorServerKeepsAcceptingAfterFailedAccepts() throws Exception {
+        checkServerKeepsAcceptingAfterFailures(ROT13Server.Mode.SELECTOR);
+    }
+
+    @Test
+    public void threadedServerKeepsAcceptingAfterFailedAccepts() throws Exception {
+        checkServerKeepsAcceptingAfterFailures(ROT13Server.Mode.THREADS);
+    }
+
+    @Test
+    public void loadGeneratorMeasuresRoundTrips() throws Exception {
+        ROT13Server server = new ROT13Server(ROT13Server.Mode.SELECTOR, ROT13Server.DEFAULT_BUFFER_SIZE);
+        try {
+            InetSocketAddress address = server.start(loopback());
+            ROT13LoadGenerator.Result result = ROT13LoadGenerator.run(address, 4, 512, 200);
+            Assert.assertTrue(result.getRequests() > 0);
+            Assert.assertEquals(result.getRequests() * 512L, result.getBytes());
+            Assert.assertTrue(result.getLatencyPercentile(50) > 0);
+            Assert.assertTrue(result.getLatencyPercentile(50) <= result.getLatencyPercentile(99));
+            Assert.assertTrue(result.getLatencyPercentile(99) <= result.getLatencyPercentile(100));
+        } finally {
+            server.close();
+        }
+    }
+
+}
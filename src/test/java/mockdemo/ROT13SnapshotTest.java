@@ -0,0 +1,74 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+public class ROT13SnapshotTest {
+
+    @Test
+    public void snapshotsCurrentContents() {
+        ROT13List list = new ROT13List(new LinkedList<String>());
+        list.addAll(Arrays.asList("one", "", null, "two", "one"));
+
+        ROT13Snapshot snapshot = list.snapshot();
+        list.add("three");
+
+        Assert.assertEquals(Arrays.asList("one", "", null, "two", "one"), snapshot);
+        Assert.assertEquals(Arrays.asList("one", "", null, "two", "one").hashCode(), snapshot.hashCode());
+        Assert.assertEquals("[one, , null, two, one]", snapshot.toString());
+    }
+
+    @Test
+    public void looksUpElements() {
+        ROT13List list = new ROT13List(new ArrayList<String>());
+        list.addAll(Arrays.asList("one", "", null, "two", "one", null, "Aa", "BB"));
+        ROT13Snapshot snapshot = list.snapshot();
+
+        Assert.assertEquals(0, snapshot.indexOf("one"));
+        Assert.assertEquals(4, snapshot.lastIndexOf("one"));
+        Assert.assertEquals(1, snapshot.indexOf(""));
+        Assert.assertEquals(2, snapshot.indexOf(null));
+        Assert.assertEquals(5, snapshot.lastIndexOf(null));
+        // "Aa" and "BB" have the same hash code
+        Assert.assertEquals(6, snapshot.indexOf("Aa"));
+        Assert.assertEquals(7, snapshot.indexOf("BB"));
+        Assert.assertEquals(7, snapshot.lastIndexOf("BB"));
+        Assert.assertFalse(snapshot.contains("three"));
+        Assert.assertFalse(snapshot.contains(1));
+        Assert.assertTrue(snapshot.contains("two"));
+    }
+
+    @Test
+    public void handlesLargeLists() {
+        List<String> delegate = new ArrayList<String>();
+        for (int i = 0; i < 100000; i++) {
+            delegate.add(ROT13List.rot13("element " + (i % 50000)));
+        }
+        ROT13Snapshot snapshot = new ROT13List(delegate).snapshot();
+
+        Assert.assertEquals(100000, snapshot.size());
+        Assert.assertEquals("element 12345", snapshot.get(62345));
+        Assert.assertEquals(12345, snapshot.indexOf("element 12345"));
+        Assert.assertEquals(62345, snapshot.lastIndexOf("element 12345"));
+        Assert.assertEquals(-1, snapshot.indexOf("element 50000"));
+    }
+
+    @Test
+    public void snapshotsEmptyList() {
+        ROT13Snapshot snapshot = new ROT13List(new ArrayList<String>()).snapshot();
+        Assert.assertTrue(snapshot.isEmpty());
+        Assert.assertEquals(-1, snapshot.indexOf("anything"));
+        Assert.assertEquals(-1, snapshot.indexOf(null));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void isReadOnly() {
+        new ROT13List(new ArrayList<String>(Arrays.asList("bar"))).snapshot().set(0, "two");
+    }
+
+}
@@ -0,0 +1,83 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+public class ROT13StreamsTest {
+
+    private static String longText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 20000; i++) {
+            sb.append("Line ").append(i).append(": Magic Squirrel Juice\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void readerTranslatesSingleAndBulkReads() throws IOException {
+        Reader reader = new ROT13Reader(new StringReader("Hello World"));
+        Assert.assertEquals('U', reader.read());
+        char[] cbuf = new char[16];
+        int count = reader.read(cbuf, 2, 14);
+        Assert.assertEquals("ryyb Jbeyq", new String(cbuf, 2, count));
+        Assert.assertEquals(-1, reader.read());
+        Assert.assertEquals(-1, reader.read(cbuf, 0, 16));
+    }
+
+    @Test
+    public void writerTranslatesWithoutTouchingCallersArray() throws IOException {
+        String text = longText();
+        char[] chars = text.toCharArray();
+        StringWriter sink = new StringWriter();
+        Writer writer = new ROT13Writer(sink);
+        writer.write(chars[0]);
+        writer.write(chars, 1, chars.length - 1);
+        writer.write(text, 0, 5);
+        writer.append("Wo").append("rld", 0, 2);
+        writer.flush();
+        Assert.assertEquals(text, String.valueOf(chars));
+        Assert.assertEquals(ROT13List.rot13(text + "Line Worl"), sink.toString());
+    }
+
+    @Test
+    public void inputStreamTranslatesSingleAndBulkReads() throws IOException {
+        InputStream in = new ROT13InputStream(new ByteArrayInputStream(new byte[]{'H', 'i', '!', (byte) 0xe9}));
+        Assert.assertEquals('U', in.read());
+        byte[] b = new byte[8];
+        Assert.assertEquals(3, in.read(b));
+        Assert.assertArrayEquals(new byte[]{'v', '!', (byte) 0xe9}, new byte[]{b[0], b[1], b[2]});
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void outputStreamRoundTripsThroughInputStream() throws IOException {
+        byte[] plain = longText().getBytes("ISO-8859-1");
+        byte[] copy = plain.clone();
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        OutputStream out = new ROT13OutputStream(sink);
+        out.write(plain[0]);
+        out.write(plain, 1, plain.length - 1);
+        out.close();
+        Assert.assertArrayEquals(copy, plain);
+        Assert.assertEquals(ROT13List.rot13(longText()), new String(sink.toByteArray(), "ISO-8859-1"));
+
+        InputStream in = new ROT13InputStream(new ByteArrayInputStream(sink.toByteArray()));
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        byte[] b = new byte[1000];
+        for (int count = in.read(b); count >= 0; count = in.read(b)) {
+            decoded.write(b, 0, count);
+        }
+        Assert.assertArrayEquals(plain, decoded.toByteArray());
+    }
+
+}
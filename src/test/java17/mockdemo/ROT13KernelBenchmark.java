@@ -0,0 +1,67 @@
+package mockdemo;
+
+import java.util.Random;
+
+
+// Quick and dirty benchmark of the scalar ROT13 kernel against the Vector API one, to find the run length at which
+// the vector kernel starts winning (the default for -Dmockdemo.rot13.vectorThreshold).
+// Built by the java17 profile, which compiles it alongside the Java 17 kernel into target/test-classes:
+// mvn test-compile && java --add-modules jdk.incubator.vector -cp target/test-classes:target/classes mockdemo.ROT13KernelBenchmark
+public class ROT13KernelBenchmark {
+
+    private static final int[] LENGTHS = {4, 8, 16, 24, 32, 48, 64, 128, 256, 1024, 4096, 16384, 65536, 1 << 20};
+
+    // roughly how many chars to push through per measurement, whatever the length
+    private static final long CHARS_PER_ROUND = 1L << 26;
+
+    public static void main(String[] args) {
+        if (!ROT13Kernel.isVectorized()) {
+            System.err.println("Vector API kernel not available - run with --add-modules jdk.incubator.vector");
+            System.exit(1);
+        }
+        Random random = new Random(13);
+        char[] text = new char[LENGTHS[LENGTHS.length - 1]];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (char) (' ' + random.nextInt(95));
+        }
+
+        // warm both kernels up at every length before timing anything
+        for (int length : LENGTHS) {
+            run(text, length, false);
+            run(text, length, true);
+        }
+
+        System.out.println("length\tscalar ns/char\tvector ns/char");
+        int crossover = -1;
+        for (int length : LENGTHS) {
+            double scalar = run(text, length, false);
+            double vector = run(text, length, true);
+            System.out.printf("%d\t%.3f\t%.3f%n", length, scalar, vector);
+            // the crossover is where the vector kernel starts winning and keeps on winning
+            if (vector < scalar) {
+                if (crossover < 0) {
+                    crossover = length;
+                }
+            } else {
+                crossover = -1;
+            }
+        }
+        System.out.println("crossover: " + (crossover < 0 ? "none" : String.valueOf(crossover)));
+    }
+
+    private static double run(char[] text, int length, boolean vector) {
+        long rounds = Math.max(1, CHARS_PER_ROUND / length);
+        int stride = text.length - length + 1;
+        long startTime = System.nanoTime();
+        for (long r = 0; r < rounds; r++) {
+            int from = (int) ((r * 61) % stride);
+            if (vector) {
+                ROT13VectorKernel.translate(text, from, from + length);
+            } else {
+                ROT13Kernel.scalar(text, from, from + length);
+            }
+        }
+        return (System.nanoTime() - startTime) / (double) (rounds * length);
+    }
+
+}
@@ -0,0 +1,53 @@
+package mockdemo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Only built and run by the java17 profile, which also adds jdk.incubator.vector to the test JVM.
+public class ROT13VectorKernelTest {
+
+    @Test
+    public void kernelIsVectorizedUnderTheProfile() {
+        Assert.assertTrue(ROT13Kernel.isVectorized());
+    }
+
+    @Test
+    public void vectorKernelMatchesScalarForChars() {
+        Random random = new Random(13);
+        char[] text = new char[1000];
+        for (int i = 0; i < text.length; i++) {
+            // mostly ASCII, with some Latin-1 and beyond, and every char either side of the letters
+            text[i] = (char) (random.nextInt(4) == 0 ? random.nextInt(0x10000) : random.nextInt(0x80));
+        }
+        for (int length = 0; length <= 300; length += 7) {
+            for (int from = 0; from < 70; from += 3) {
+                char[] expected = text.clone();
+                char[] actual = text.clone();
+                ROT13Kernel.scalar(expected, from, from + length);
+                ROT13VectorKernel.translate(actual, from, from + length);
+                Assert.assertArrayEquals("from " + from + ", length " + length, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void vectorKernelMatchesScalarForBytes() {
+        byte[] text = new byte[1024];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (byte) i;
+        }
+        for (int length = 0; length <= 300; length += 7) {
+            for (int from = 0; from < 70; from += 3) {
+                byte[] expected = text.clone();
+                byte[] actual = text.clone();
+                ROT13Kernel.scalar(expected, from, from + length);
+                ROT13VectorKernel.translate(actual, from, from + length);
+                Assert.assertTrue("from " + from + ", length " + length, Arrays.equals(expected, actual));
+            }
+        }
+    }
+
+}